@@ -750,6 +750,15 @@ class BenchmarkReporter:
             STDOUT.log("Skipping Benchmark, No Connectables to run !")
 
     def _print_results_table(self):
+        def _summarize(result: ConnectableResult):
+            # errored results needn't carry any values
+            values = result.values or [1e9, 1e9]
+            return (
+                statistics.mean(values),
+                statistics.stdev(values),
+                result.errored,
+            )
+
         def _format_value(value: float) -> str:
             if value * 1000 < 1:
                 return f"{round(value * 1000 * 1000)}us"
@@ -770,15 +779,7 @@ class BenchmarkReporter:
                 test_results[0].connectable_results,
             ):
                 connectable_results = [
-                    (
-                        statistics.mean(
-                            test_result.connectable_results[idx].values,
-                        ),
-                        statistics.stdev(
-                            test_result.connectable_results[idx].values,
-                        ),
-                        test_result.connectable_results[idx].errored,
-                    )
+                    _summarize(test_result.connectable_results[idx])
                     for test_result in test_results
                 ]
                 results_for_connectable[connectable_result.connectable_id] = (
@@ -32,7 +32,10 @@ const TestResultTable = ({
     testResults[0].implementationResults.forEach(
       (implementationResult, idx) => {
         const implementationResults = testResults.map((testResult) => {
-          const values = testResult.implementationResults[idx].values;
+          // errored results needn't carry any values
+          const values = testResult.implementationResults[idx].values.length
+            ? testResult.implementationResults[idx].values
+            : [1e9, 1e9];
           return [
             mean(values), // Mean of the values
             std(values) as unknown, // Standard deviation of the values
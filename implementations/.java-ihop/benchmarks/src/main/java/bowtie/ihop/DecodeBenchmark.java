@@ -0,0 +1,171 @@
+package bowtie.ihop;
+
+import bowtie.ihop.Protocol.DialectRequest;
+import bowtie.ihop.Protocol.RunRequest;
+import bowtie.ihop.Protocol.StartRequest;
+import bowtie.ihop.Protocol.StopRequest;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Decodes the run commands Bowtie sends for one dialect of the official test
+ * suite, once the way the harnesses do it today (a tree, then records bound
+ * from the tree) and once with {@link CommandDecoder}.
+ *
+ * <p>Run with {@code gradle jmh --args="-p
+ * suite=.../JSON-Schema-Test-Suite/tests/draft2020-12 -prof gc"}. Cases from
+ * the refRemote, dynamicRef and vocabulary files carry the suite's remotes as
+ * their registry, as Bowtie does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DecodeBenchmark {
+  private static final String REMOTES = "http://localhost:1234/";
+
+  @Param({""}) public String suite;
+
+  private final ObjectMapper mapper;
+  private final CommandDecoder<JsonNode> decoder;
+  private final JavaType runRequest;
+  private List<String> commands;
+
+  public DecodeBenchmark() {
+    mapper = new ObjectMapper().configure(
+        DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    decoder = CommandDecoder.forTrees(mapper);
+    runRequest = mapper.getTypeFactory().constructParametricType(
+        RunRequest.class, JsonNode.class);
+  }
+
+  @Setup
+  public void setUp() throws IOException {
+    if (suite.isEmpty()) {
+      throw new IllegalArgumentException(
+          "pass -p suite=<test suite directory of one dialect>");
+    }
+    Path dialect = Path.of(suite);
+    ObjectNode registry = remotes(dialect);
+    commands = new ArrayList<>();
+    try (Stream<Path> files = Files.list(dialect)) {
+      for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+        String name = file.getFileName().toString();
+        boolean remote = name.startsWith("refRemote") ||
+                         name.startsWith("dynamicRef") ||
+                         name.startsWith("vocabulary");
+        for (JsonNode testCase : mapper.readTree(file.toFile())) {
+          commands.add(command(testCase, remote ? registry : null));
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public void treeThenRecords(Blackhole blackhole) throws IOException {
+    for (String command : commands) {
+      JsonNode node = mapper.readTree(command);
+      if ("run".equals(node.get("cmd").asText())) {
+        blackhole.consume(mapper.treeToValue(node, runRequest));
+      }
+    }
+  }
+
+  @Benchmark
+  public void streaming(Blackhole blackhole) throws IOException {
+    CommandDecoder.Handler<JsonNode> handler = new Consumer(blackhole);
+    for (String command : commands) {
+      decoder.decode(command, handler);
+    }
+  }
+
+  private String command(JsonNode testCase, ObjectNode registry)
+      throws IOException {
+    ObjectNode run = mapper.createObjectNode();
+    run.put("cmd", "run");
+    run.put("seq", commands.size());
+    ObjectNode bowtieCase = run.putObject("case");
+    bowtieCase.set("description", testCase.get("description"));
+    if (testCase.has("comment")) {
+      bowtieCase.set("comment", testCase.get("comment"));
+    }
+    bowtieCase.set("schema", testCase.get("schema"));
+    if (registry != null) {
+      bowtieCase.set("registry", registry);
+    }
+    for (JsonNode test : testCase.get("tests")) {
+      ObjectNode each = bowtieCase.withArray("tests").addObject();
+      each.set("description", test.get("description"));
+      each.set("instance", test.get("data"));
+      each.set("valid", test.get("valid"));
+    }
+    return mapper.writeValueAsString(run);
+  }
+
+  private ObjectNode remotes(Path dialect) throws IOException {
+    Path remotes = dialect.getParent().resolveSibling("remotes");
+    String own = dialect.getFileName().toString();
+    ObjectNode registry = mapper.createObjectNode();
+    if (!Files.isDirectory(remotes)) {
+      return registry;
+    }
+    try (Stream<Path> files = Files.walk(remotes)) {
+      for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+        String relative =
+            remotes.relativize(file).toString().replace('\\', '/');
+        if (relative.startsWith("draft") && !relative.startsWith(own)) {
+          continue;
+        }
+        registry.set(REMOTES + relative, mapper.readTree(file.toFile()));
+      }
+    }
+    return registry;
+  }
+
+  private record Consumer(Blackhole blackhole)
+      implements CommandDecoder.Handler<JsonNode> {
+    @Override
+    public void start(StartRequest request) {
+      blackhole.consume(request);
+    }
+
+    @Override
+    public void dialect(DialectRequest request) {
+      blackhole.consume(request);
+    }
+
+    @Override
+    public void run(RunRequest<JsonNode> request) {
+      blackhole.consume(request);
+    }
+
+    @Override
+    public void stop(StopRequest request) {
+      blackhole.consume(request);
+    }
+  }
+}
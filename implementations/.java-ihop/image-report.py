@@ -0,0 +1,107 @@
+"""
+Report the size, startup time and memory use of Java harness images.
+
+For each image this starts a number of containers, and for each measures the
+time until the start response arrives, the time until the first run response
+arrives, and the container's memory use after that run. Medians are
+reported, once as the image is and once with its AOT cache, if any, turned
+off with -XX:AOTMode=off.
+
+    python3 image-report.py ghcr.io/bowtie-json-schema/java-sjf4j ...
+
+The container runtime is podman unless $CONTAINER_RUNTIME says otherwise.
+"""
+
+from statistics import median
+from time import perf_counter
+import json
+import os
+import re
+import subprocess
+import sys
+
+RUNTIME = os.environ.get("CONTAINER_RUNTIME", "podman")
+STARTS = int(os.environ.get("STARTS", "10"))
+WITHOUT_CACHE = ["--env", "JDK_JAVA_OPTIONS=-XX:AOTMode=off"]
+UNITS = {"B": 1, "kB": 1e3, "KB": 1e3, "MB": 1e6, "GB": 1e9}
+UNITS.update(KiB=2**10, MiB=2**20, GiB=2**30)
+
+
+def container(*args):
+    return subprocess.run(  # noqa: S603
+        [RUNTIME, *args],
+        capture_output=True,
+        text=True,
+        check=True,
+    ).stdout.strip()
+
+
+def size(image):
+    size = int(container("image", "inspect", "--format={{.Size}}", image))
+    return f"{size / 1e6:6.0f} MB"
+
+
+def in_bytes(usage):
+    number, unit = re.match(r"([\d.]+)\s*(\w+)", usage.strip()).groups()
+    return float(number) * UNITS[unit]
+
+
+def first_responses(image, options, name):
+    started = perf_counter()
+    harness = subprocess.Popen(  # noqa: S603
+        [RUNTIME, "run", "--rm", "--interactive", "--name", name]
+        + [*options, image],
+        stdin=subprocess.PIPE,
+        stdout=subprocess.PIPE,
+        stderr=subprocess.DEVNULL,
+        text=True,
+    )
+
+    def send(command):
+        harness.stdin.write(json.dumps(command) + "\n")
+        harness.stdin.flush()
+        return json.loads(harness.stdout.readline())
+
+    start = send({"cmd": "start", "version": 1})
+    to_start = perf_counter() - started
+    dialect = start["implementation"]["dialects"][0]
+    send({"cmd": "dialect", "dialect": dialect})
+    case = {
+        "description": "first run",
+        "schema": {"$schema": dialect, "type": "integer"},
+        "tests": [{"description": "integer", "instance": 37}],
+    }
+    send({"cmd": "run", "seq": 0, "case": case})
+    to_run = perf_counter() - started
+    memory = container(
+        "stats",
+        "--no-stream",
+        "--format={{.MemUsage}}",
+        name,
+    ).partition("/")[0]
+    memory = in_bytes(memory)
+    harness.stdin.write(json.dumps({"cmd": "stop"}) + "\n")
+    harness.stdin.close()
+    harness.wait()
+    return to_start, to_run, memory
+
+
+def report(image, options):
+    times = [
+        first_responses(image, options, f"image-report-{os.getpid()}-{each}")
+        for each in range(STARTS)
+    ]
+    to_start = median(start for start, _, _ in times) * 1000
+    to_run = median(run for _, run, _ in times) * 1000
+    memory = median(memory for _, _, memory in times) / 1e6
+    return f"{to_start:8.0f} ms {to_run:8.0f} ms {memory:9.0f} MB"
+
+
+sys.stdout.write(
+    f"{'':50} {'size':>9} {'first start':>11} {'first run':>11} "
+    f"{'memory':>12}\n",
+)
+for image in sys.argv[1:]:
+    line = f"{image:40} {{:9}} {size(image)} {{}}\n"
+    sys.stdout.write(line.format("cached", report(image, [])))
+    sys.stdout.write(line.format("uncached", report(image, WITHOUT_CACHE)))
@@ -0,0 +1,71 @@
+"""
+Report where a Java harness's time goes, from the phase timings it gives.
+
+Replays an IHOP session against a harness image with phase timings turned on,
+and reports for each run the round trip time seen from outside next to the
+wall clock time the harness spent decoding, compiling, validating and
+encoding, and the thread CPU time of those phases. What's left of the round
+trip is the container runtime, the pipe and the JVM outside of those phases.
+
+    python3 phase-report.py IMAGE < ../java-json-schema/training-session.jsonl
+
+The container runtime is podman unless $CONTAINER_RUNTIME says otherwise.
+"""
+
+from time import perf_counter
+import json
+import os
+import subprocess
+import sys
+
+RUNTIME = os.environ.get("CONTAINER_RUNTIME", "podman")
+EXTENSION = "x-java-timings"
+PHASES = ["decode", "compile", "validate", "encode"]
+
+
+def milliseconds(timings, phase, clock):
+    phases = timings.get(phase)
+    if not isinstance(phases, list):
+        phases = [phases]
+    total = 0
+    for each in phases:
+        if each is None or each[clock] is None:
+            continue
+        total += each[clock]
+    return total / 1e6
+
+
+harness = subprocess.Popen(  # noqa: S603
+    [RUNTIME, "run", "--rm", "--interactive", sys.argv[1]],
+    stdin=subprocess.PIPE,
+    stdout=subprocess.PIPE,
+    text=True,
+)
+sys.stdout.write(
+    f"{'seq':>6} {'round trip':>11} "
+    + " ".join(f"{phase:>9}" for phase in PHASES)
+    + f" {'rest':>9} {'cpu':>9}\n",
+)
+for line in sys.stdin:
+    command = json.loads(line)
+    if command["cmd"] == "start":
+        command[EXTENSION] = True
+    harness.stdin.write(json.dumps(command) + "\n")
+    harness.stdin.flush()
+    if command["cmd"] == "stop":
+        break
+    started = perf_counter()
+    response = json.loads(harness.stdout.readline())
+    round_trip = (perf_counter() - started) * 1000
+    if command["cmd"] != "run":
+        continue
+    timings = response.get(EXTENSION, {})
+    wall = [milliseconds(timings, phase, "wall_ns") for phase in PHASES]
+    cpu = sum(milliseconds(timings, phase, "cpu_ns") for phase in PHASES)
+    sys.stdout.write(
+        f"{response['seq']:>6} {round_trip:8.2f} ms "
+        + " ".join(f"{each:6.2f} ms" for each in wall)
+        + f" {round_trip - sum(wall):6.2f} ms {cpu:6.2f} ms\n",
+    )
+harness.stdin.close()
+harness.wait()
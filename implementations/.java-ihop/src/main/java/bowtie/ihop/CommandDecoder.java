@@ -0,0 +1,210 @@
+package bowtie.ihop;
+
+import bowtie.ihop.Protocol.DialectRequest;
+import bowtie.ihop.Protocol.RunRequest;
+import bowtie.ihop.Protocol.StartRequest;
+import bowtie.ihop.Protocol.StopRequest;
+import bowtie.ihop.Protocol.Test;
+import bowtie.ihop.Protocol.TestCase;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes IHOP commands in a single pass over the tokens of a line, without
+ * building an intermediate tree of the whole command. Only sequence numbers,
+ * schemas, registries and instances are materialised, by a {@link
+ * ValueReader}, in whichever node type the harness's library consumes.
+ *
+ * <p>A harness either has each command dispatched to its {@link Handler}, or
+ * {@link #read reads} commands into their request records, to handle later.
+ */
+public final class CommandDecoder<N> {
+
+  /**
+   * Materialises the JSON value starting at the parser's current token.
+   */
+  @FunctionalInterface
+  public interface ValueReader<N> {
+    N read(JsonParser parser) throws IOException;
+  }
+
+  /**
+   * Receives each decoded command.
+   */
+  public interface Handler<N> {
+    void start(StartRequest request) throws IOException;
+
+    void dialect(DialectRequest request) throws IOException;
+
+    void run(RunRequest<N> request) throws IOException;
+
+    void stop(StopRequest request) throws IOException;
+  }
+
+  private final JsonFactory factory;
+  private final ValueReader<N> values;
+
+  public CommandDecoder(JsonFactory factory, ValueReader<N> values) {
+    this.factory = factory;
+    this.values = values;
+  }
+
+  /**
+   * A decoder materialising values as Jackson trees of the given mapper.
+   */
+  public static CommandDecoder<JsonNode> forTrees(ObjectMapper mapper) {
+    return new CommandDecoder<>(mapper.getFactory(), mapper::readTree);
+  }
+
+  public void decode(String line, Handler<N> handler) throws IOException {
+    Record request = read(line);
+    if (request instanceof StartRequest start) {
+      handler.start(start);
+    } else if (request instanceof DialectRequest dialect) {
+      handler.dialect(dialect);
+    } else if (request instanceof StopRequest stop) {
+      handler.stop(stop);
+    } else {
+      @SuppressWarnings("unchecked")
+      RunRequest<N> run = (RunRequest<N>)request;
+      handler.run(run);
+    }
+  }
+
+  /**
+   * Decode a command into its request record: a {@link StartRequest}, {@link
+   * DialectRequest}, {@link RunRequest} or {@link StopRequest}.
+   */
+  public Record read(String line) throws IOException {
+    try (JsonParser parser = factory.createParser(line)) {
+      expect(parser, JsonToken.START_OBJECT);
+      Fields<N> fields = new Fields<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = parser.currentName();
+        parser.nextToken();
+        switch (name) {
+        case "cmd" -> fields.cmd = parser.getValueAsString();
+        case "version" -> fields.version = parser.getValueAsInt();
+        case "dialect" -> fields.dialect = parser.getValueAsString();
+        case "seq" -> fields.seq = values.read(parser);
+        case "case" -> fields.testCase = testCase(parser);
+        case PhaseTimings.EXTENSION -> fields.timings =
+            parser.getValueAsBoolean();
+        default -> parser.skipChildren();
+        }
+      }
+      return fields.request();
+    }
+  }
+
+  private TestCase<N> testCase(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      throw new IllegalArgumentException("Expected case to be an object");
+    }
+    String description = null;
+    String comment = null;
+    N schema = null;
+    N registry = null;
+    List<Test<N>> tests = List.of();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.currentName();
+      parser.nextToken();
+      switch (name) {
+      case "description" -> description = parser.getValueAsString();
+      case "comment" -> comment = parser.getValueAsString();
+      case "schema" -> schema = values.read(parser);
+      case "registry" -> registry = values.read(parser);
+      case "tests" -> tests = tests(parser);
+      default -> parser.skipChildren();
+      }
+    }
+    return new TestCase<>(description, comment, schema, registry, tests);
+  }
+
+  private List<Test<N>> tests(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_ARRAY) {
+      throw new IllegalArgumentException("Expected tests to be an array");
+    }
+    List<Test<N>> tests = new ArrayList<>();
+    for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY;
+         token = parser.nextToken()) {
+      if (token != JsonToken.START_OBJECT) {
+        throw new IllegalArgumentException(
+            "Expected each test to be an object but found " + token);
+      }
+      tests.add(test(parser));
+    }
+    return tests;
+  }
+
+  private Test<N> test(JsonParser parser) throws IOException {
+    String description = null;
+    String comment = null;
+    N instance = null;
+    Boolean valid = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.currentName();
+      parser.nextToken();
+      switch (name) {
+      case "description" -> description = parser.getValueAsString();
+      case "comment" -> comment = parser.getValueAsString();
+      case "instance" -> instance = values.read(parser);
+      case "valid" -> valid = validity(parser);
+      default -> parser.skipChildren();
+      }
+    }
+    return new Test<>(description, comment, instance, valid);
+  }
+
+  /**
+   * A test's expected validity, if it has one (which harnesses don't need).
+   */
+  private static Boolean validity(JsonParser parser) throws IOException {
+    if (parser.currentToken().isBoolean()) {
+      return parser.getBooleanValue();
+    }
+    parser.skipChildren();
+    return null;
+  }
+
+  private static void expect(JsonParser parser, JsonToken token)
+      throws IOException {
+    if (parser.nextToken() != token) {
+      throw new IllegalArgumentException(
+          "Expected %s but found %s".formatted(token, parser.currentToken()));
+    }
+  }
+
+  /**
+   * The top-level fields of a command, collected before dispatching on cmd,
+   * which need not come first.
+   */
+  private static final class Fields<N> {
+    private String cmd;
+    private int version;
+    private boolean timings;
+    private String dialect;
+    private N seq;
+    private TestCase<N> testCase;
+
+    private Record request() {
+      if (cmd == null) {
+        throw new IllegalArgumentException("Missing cmd");
+      }
+      return switch (cmd) {
+      case "start" -> new StartRequest(version, timings);
+      case "dialect" -> new DialectRequest(dialect);
+      case "run" -> new RunRequest<>(seq, testCase);
+      case "stop" -> new StopRequest();
+      default ->
+        throw new IllegalArgumentException("Unknown cmd [%s]".formatted(cmd));
+      };
+    }
+  }
+}
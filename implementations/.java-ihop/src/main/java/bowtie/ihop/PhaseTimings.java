@@ -0,0 +1,119 @@
+package bowtie.ihop;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opt-in timings of the phases of answering a run request, which separate
+ * what a harness spends on a case from what Bowtie and the pipe between
+ * them do.
+ *
+ * A start request carrying {@code "x-java-timings": true} turns them on, after
+ * which each run response carries an {@code "x-java-timings"} object with the
+ * wall clock and thread CPU time spent decoding the request, compiling its
+ * schema, validating each of its tests and encoding the response. Phases
+ * a harness doesn't go through, or didn't reach, are null.
+ *
+ * Harnesses call each method as they finish the phase, whether or not timings
+ * are on, and all of them do nothing when they aren't.
+ */
+public final class PhaseTimings {
+  public static final String EXTENSION = "x-java-timings";
+
+  /**
+   * Nanoseconds spent in a phase, the CPU time being null when the JVM can't
+   * measure it.
+   */
+  public record Phase(long wall_ns, Long cpu_ns) {}
+
+  public record Timings(Phase decode, Phase compile, List<Phase> validate,
+                        Phase encode) {}
+
+  private final ThreadMXBean threads;
+  private boolean enabled;
+  private long wall;
+  private long cpu;
+  private TimedPhases phases;
+
+  public PhaseTimings() {
+    threads = ManagementFactory.getThreadMXBean();
+    phases = new TimedPhases();
+  }
+
+  public void enable(boolean enabled) {
+    this.enabled = enabled;
+    if (enabled && threads.isCurrentThreadCpuTimeSupported() &&
+        !threads.isThreadCpuTimeEnabled()) {
+      threads.setThreadCpuTimeEnabled(true);
+    }
+  }
+
+  /**
+   * Called before a request is decoded.
+   */
+  public void begin() {
+    if (enabled) {
+      phases = new TimedPhases();
+      lap();
+    }
+  }
+
+  public void decoded() {
+    if (enabled) {
+      phases.decode = lap();
+    }
+  }
+
+  public void compiled() {
+    if (enabled) {
+      phases.compile = lap();
+    }
+  }
+
+  public void validated() {
+    if (enabled) {
+      phases.validate.add(lap());
+    }
+  }
+
+  /**
+   * Encode a response, adding the timings to it if they're on. The encode
+   * phase ends once the response is converted to a tree, so it leaves out
+   * writing the timings themselves.
+   */
+  public String encoded(Object response, ObjectMapper mapper)
+      throws IOException {
+    if (!enabled) {
+      return mapper.writeValueAsString(response);
+    }
+    ObjectNode tree = mapper.valueToTree(response);
+    Timings timings =
+        new Timings(phases.decode, phases.compile, phases.validate, lap());
+    tree.set(EXTENSION, mapper.valueToTree(timings));
+    return mapper.writeValueAsString(tree);
+  }
+
+  private Phase lap() {
+    long now = System.nanoTime();
+    long cpuNow = threads.getCurrentThreadCpuTime();
+    Phase phase =
+        new Phase(now - wall, cpuNow < 0 || cpu < 0 ? null : cpuNow - cpu);
+    wall = now;
+    cpu = cpuNow;
+    return phase;
+  }
+
+  /**
+   * The phases of the current request timed so far.
+   */
+  private static final class TimedPhases {
+    private Phase decode;
+    private Phase compile;
+    private final List<Phase> validate = new ArrayList<>();
+  }
+}
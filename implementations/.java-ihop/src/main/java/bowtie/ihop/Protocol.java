@@ -0,0 +1,52 @@
+package bowtie.ihop;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+
+/**
+ * The requests and responses of Bowtie's IHOP protocol, generic in the node
+ * type a harness uses for schemas, instances and sequence numbers.
+ */
+public interface Protocol {
+  record StartRequest(
+      int version, @JsonProperty(PhaseTimings.EXTENSION) boolean timings) {
+    public StartRequest(int version) { this(version, false); }
+  }
+
+  record DialectRequest(String dialect) {}
+
+  record RunRequest<N>(N seq, @JsonProperty("case") TestCase<N> testCase) {}
+
+  record StopRequest() {}
+
+  record TestCase<N>(String description, String comment, N schema,
+                     N registry, List<Test<N>> tests) {}
+
+  record Test<N>(String description, String comment, N instance,
+                 Boolean valid) {}
+
+  record StartResponse(int version, Implementation implementation) {}
+
+  record Implementation(String language, String name, String version,
+                        List<String> dialects, String homepage,
+                        @JsonInclude(JsonInclude.Include.NON_NULL)
+                        String documentation, String issues, String source,
+                        String os, String os_version, String language_version,
+                        List<Link> links) {}
+
+  record Link(String url, String description) {}
+
+  record DialectResponse(boolean ok) {}
+
+  record RunResponse<N>(N seq, List<TestResult> results) {}
+
+  record RunSkippedResponse<N>(N seq, boolean skipped, String message,
+                               String issue_url) {}
+
+  record RunErroredResponse<N>(N seq, boolean errored, ErrorContext context) {}
+
+  record ErrorContext(String message, String traceback) {}
+
+  record TestResult(boolean valid) {}
+}
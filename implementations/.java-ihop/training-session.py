@@ -0,0 +1,91 @@
+"""
+Write an IHOP session for training a Java harness's AOT cache.
+
+The session starts the harness, selects each given dialect in turn, sends it
+the kind of cases Bowtie itself sends (smoke tests, a registry lookup and a
+mix of common keywords), then stops it.
+
+    python3 training-session.py DIALECT... > training-session.jsonl
+"""
+
+import json
+import sys
+
+DRAFT3 = "http://json-schema.org/draft-03/schema#"
+INSTANCES = [None, True, 37, 37.37, "37", [37], {"foo": 37}]
+REMOTE = "http://bowtie.report/cli/smoke/ref-to-string"
+
+
+def keywords(dialect):
+    schema = {
+        "type": "object",
+        "properties": {
+            "name": {"type": "string", "minLength": 1, "pattern": "^[a-z]+$"},
+            "age": {"type": "integer", "minimum": 0, "maximum": 150},
+            "email": {"type": "string", "format": "email"},
+            "tags": {
+                "type": "array",
+                "items": {"$ref": "#/definitions/tag"},
+                "uniqueItems": True,
+            },
+            "kind": {"enum": ["a", "b"]},
+            "extra": {"anyOf": [{"type": "null"}, {"type": "number"}]},
+        },
+        "additionalProperties": False,
+        "definitions": {"tag": {"type": "string", "maxLength": 8}},
+    }
+    if dialect != DRAFT3:
+        schema["required"] = ["name"]
+        schema["properties"]["extra"]["not"] = {"const": 0}
+    return {
+        "description": "keywords",
+        "schema": schema,
+        "tests": [
+            {
+                "description": "valid",
+                "instance": {"name": "bowtie", "age": 3, "tags": ["x", "y"]},
+            },
+            {
+                "description": "invalid",
+                "instance": {"name": "", "age": -1, "tags": ["x", "x"]},
+            },
+            {"description": "missing", "instance": {"kind": "c"}},
+            {"description": "email", "instance": {"email": "a@example.com"}},
+            {"description": "extra", "instance": {"name": "a", "extra": 1.5}},
+        ],
+    }
+
+
+def cases(dialect):
+    tests = [
+        {"description": json.dumps(each), "instance": each}
+        for each in INSTANCES
+    ]
+    yield {"description": "top", "schema": {}, "tests": tests}
+    yield {"description": "bottom", "schema": {"not": {}}, "tests": tests}
+    yield {
+        "description": "$ref / registry support",
+        "schema": {"$ref": REMOTE},
+        "registry": {REMOTE: {"$schema": dialect, "type": "string"}},
+        "tests": [
+            {"description": "string", "instance": "valid"},
+            {"description": "non-string", "instance": 37},
+        ],
+    }
+    yield keywords(dialect)
+
+
+def session(dialects):
+    yield {"cmd": "start", "version": 1}
+    seq = 0
+    for dialect in dialects:
+        yield {"cmd": "dialect", "dialect": dialect}
+        for case in cases(dialect):
+            case["schema"] = {"$schema": dialect, **case["schema"]}
+            yield {"cmd": "run", "seq": seq, "case": case}
+            seq += 1
+    yield {"cmd": "stop"}
+
+
+for command in session(sys.argv[1:]):
+    sys.stdout.write(json.dumps(command) + "\n")
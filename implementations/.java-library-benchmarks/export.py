@@ -0,0 +1,65 @@
+"""
+Export Bowtie's own benchmarks as JSON, for the Java library benchmarks.
+
+Run from the root of the repository, with Bowtie installed:
+
+    uv run implementations/.java-library-benchmarks/export.py > corpus.json
+
+As with ``bowtie perf``, these are the default benchmarks, unless
+``--keywords`` is given, which exports the keyword benchmarks instead.
+"""
+
+from pathlib import Path
+import importlib.metadata
+import json
+import sys
+
+from bowtie._benchmarks import BenchmarkGroup
+import bowtie
+
+BENCHMARKS = Path(bowtie.__file__).parent / "benchmarks"
+
+
+def exported(group):
+    return dict(
+        name=group.name,
+        description=group.description,
+        benchmark_type=group.benchmark_type,
+        varying_parameter=group.varying_parameter,
+        dialects_supported=[
+            dialect.serializable() for dialect in group.dialects_supported
+        ],
+        benchmarks=[
+            dict(
+                name=benchmark.name,
+                description=benchmark.description,
+                dialect=(
+                    benchmark.dialect.serializable()
+                    if benchmark.dialect is not None
+                    else None
+                ),
+                schema=benchmark.schema,
+                tests=[
+                    dict(description=test.description, instance=test.instance)
+                    for test in benchmark.tests
+                ],
+            )
+            for benchmark in group.benchmarks
+        ],
+    )
+
+
+if sys.argv[1:] == ["--keywords"]:
+    groups = BenchmarkGroup.from_folder(
+        BENCHMARKS / "keywords",
+        module="bowtie.benchmarks.keywords",
+    )
+else:
+    groups = BenchmarkGroup.from_folder(BENCHMARKS)
+json.dump(
+    dict(
+        bowtie_version=importlib.metadata.version("bowtie-json-schema"),
+        groups=[exported(group) for group in groups],
+    ),
+    sys.stdout,
+)
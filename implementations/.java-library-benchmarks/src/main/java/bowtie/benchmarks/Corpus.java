@@ -0,0 +1,114 @@
+package bowtie.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bowtie's benchmarks, as written by {@code export.py}.
+ *
+ * Benchmarks are keyed by the indices of their group and of themselves
+ * ({@code "2/0"}), and their tests by those and their own ({@code "2/0/3"}).
+ */
+final class Corpus {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final JsonNode root;
+
+  private Corpus(JsonNode root) { this.root = root; }
+
+  static Corpus load(Path path) throws IOException {
+    return new Corpus(MAPPER.readTree(path.toFile()));
+  }
+
+  String bowtieVersion() { return root.get("bowtie_version").asText(); }
+
+  JsonNode groups() { return root.get("groups"); }
+
+  /**
+   * The benchmarks Bowtie would run for the dialect.
+   */
+  List<String> benchmarks(String dialect) {
+    List<String> keys = new ArrayList<>();
+    JsonNode groups = groups();
+    for (int g = 0; g < groups.size(); g++) {
+      if (!runs(groups.get(g), dialect)) {
+        continue;
+      }
+      JsonNode benchmarks = groups.get(g).get("benchmarks");
+      for (int b = 0; b < benchmarks.size(); b++) {
+        if (runs(benchmarks.get(b), dialect)) {
+          keys.add(g + "/" + b);
+        }
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * The tests of the benchmarks Bowtie would run for the dialect.
+   */
+  List<String> tests(String dialect) {
+    List<String> keys = new ArrayList<>();
+    for (String benchmark : benchmarks(dialect)) {
+      int count = benchmark(benchmark).get("tests").size();
+      for (int t = 0; t < count; t++) {
+        keys.add(benchmark + "/" + t);
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * The schema of a benchmark, or of the benchmark of a test, with the
+   * dialect set as Bowtie sets it.
+   */
+  String schema(String key, String dialect) throws IOException {
+    JsonNode schema = benchmark(key).get("schema").deepCopy();
+    if (schema.isObject()) {
+      ((ObjectNode)schema).put("$schema", dialect);
+    }
+    return MAPPER.writeValueAsString(schema);
+  }
+
+  String instance(String key) throws IOException {
+    String[] indices = key.split("/");
+    JsonNode test =
+        benchmark(key).get("tests").get(Integer.parseInt(indices[2]));
+    return MAPPER.writeValueAsString(test.get("instance"));
+  }
+
+  static boolean isTest(String key) { return key.split("/").length == 3; }
+
+  /**
+   * The index of the group of a benchmark or test.
+   */
+  static int group(String key) { return Integer.parseInt(key.split("/")[0]); }
+
+  /**
+   * The index of a benchmark, or of the benchmark of a test, in its group.
+   */
+  static int index(String key) { return Integer.parseInt(key.split("/")[1]); }
+
+  private JsonNode benchmark(String key) {
+    return groups().get(group(key)).get("benchmarks").get(index(key));
+  }
+
+  private static boolean runs(JsonNode node, String dialect) {
+    JsonNode dialects = node.get("dialects_supported");
+    if (dialects != null) {
+      for (JsonNode each : dialects) {
+        if (each.asText().equals(dialect)) {
+          return true;
+        }
+      }
+      return false;
+    }
+    JsonNode only = node.get("dialect");
+    return only == null || only.isNull() || only.asText().equals(dialect);
+  }
+}
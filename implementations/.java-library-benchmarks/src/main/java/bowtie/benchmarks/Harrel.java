@@ -0,0 +1,77 @@
+package bowtie.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import dev.harrel.jsonschema.Dialect;
+import dev.harrel.jsonschema.Dialects;
+import dev.harrel.jsonschema.Validator;
+import dev.harrel.jsonschema.ValidatorFactory;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+final class Harrel implements Library<JsonNode, Harrel.Registered> {
+  private final Map<String, Dialect> dialects;
+  private final Map<String, ValidatorFactory> factories;
+
+  record Registered(Validator validator, URI uri) {}
+
+  Harrel() {
+    dialects = Arrays.stream(Dialects.class.getClasses())
+                   .filter(Dialect.class ::isAssignableFrom)
+                   .map(Harrel::instantiate)
+                   .collect(Collectors.toMap(
+                       dialect -> dialect.getSpecificationVersion().getId(),
+                       Function.identity()));
+    factories = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public String harnessId() {
+    return "java-json-schema";
+  }
+
+  @Override
+  public Set<String> dialects() {
+    return dialects.keySet();
+  }
+
+  @Override
+  public JsonNode parse(String json) throws IOException {
+    return Libraries.JACKSON.readTree(json);
+  }
+
+  @Override
+  public Registered compile(String dialect, JsonNode schema) {
+    Validator validator =
+        factories
+            .computeIfAbsent(dialect,
+                             each
+                             -> new ValidatorFactory().withDefaultDialect(
+                                 dialects.get(each)))
+            .createValidator();
+    return new Registered(validator, validator.registerSchema(schema));
+  }
+
+  @Override
+  public boolean validate(Registered schema, JsonNode instance) {
+    return schema.validator().validate(schema.uri(), instance).isValid();
+  }
+
+  @Override
+  public String homepage() {
+    return "https://github.com/harrel56/json-schema";
+  }
+
+  private static Dialect instantiate(Class<?> dialect) {
+    try {
+      return (Dialect)dialect.getConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Failed to instantiate Dialect", e);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package bowtie.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+import net.jimblackler.jsonschemafriend.Loader;
+import net.jimblackler.jsonschemafriend.Schema;
+import net.jimblackler.jsonschemafriend.SchemaStore;
+import net.jimblackler.jsonschemafriend.ValidationException;
+import net.jimblackler.jsonschemafriend.Validator;
+
+/**
+ * Takes documents as JSON text, as its harness gives them to it, so its
+ * validation includes parsing the instance.
+ */
+final class JsonSchemaFriend implements Library<String, Schema> {
+  private final Validator validator;
+
+  JsonSchemaFriend() {
+    validator = new Validator();
+  }
+
+  @Override
+  public String harnessId() {
+    return "java-jsonschemafriend";
+  }
+
+  @Override
+  public Set<String> dialects() {
+    return Set.of(Libraries.DRAFT2020, Libraries.DRAFT2019, Libraries.DRAFT7,
+                  Libraries.DRAFT6, Libraries.DRAFT4, Libraries.DRAFT3);
+  }
+
+  @Override
+  public String parse(String json) {
+    return json;
+  }
+
+  @Override
+  public Schema compile(String dialect, String schema) throws Exception {
+    Loader noRegistry = new Loader() {
+      @Override
+      public String load(URI uri, boolean cacheSchema) throws IOException {
+        throw new IOException("No such schema");
+      }
+    };
+    return new SchemaStore(noRegistry).loadSchemaJson(schema);
+  }
+
+  @Override
+  public boolean validate(Schema schema, String instance) throws Exception {
+    try {
+      validator.validateJson(schema, instance);
+    } catch (ValidationException e) {
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public String homepage() {
+    return "https://github.com/jimblackler/jsonschemafriend";
+  }
+}
@@ -0,0 +1,61 @@
+package bowtie.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jsonschema.SchemaVersion;
+import com.github.fge.jsonschema.cfg.ValidationConfiguration;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class JsonTools implements Library<JsonNode, JsonSchema> {
+  private final Map<SchemaVersion, JsonSchemaFactory> factories;
+
+  JsonTools() {
+    factories = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public String harnessId() {
+    return "java-json-tools-json-schema-validator";
+  }
+
+  @Override
+  public Set<String> dialects() {
+    return Set.of(Libraries.DRAFT4, Libraries.DRAFT3);
+  }
+
+  @Override
+  public JsonNode parse(String json) throws IOException {
+    return Libraries.JACKSON.readTree(json);
+  }
+
+  @Override
+  public JsonSchema compile(String dialect, JsonNode schema)
+      throws Exception {
+    JsonSchemaFactory factory = factories.computeIfAbsent(
+        Libraries.DRAFT4.equals(dialect) ? SchemaVersion.DRAFTV4
+                                         : SchemaVersion.DRAFTV3,
+        version
+        -> JsonSchemaFactory.newBuilder()
+               .setValidationConfiguration(
+                   ValidationConfiguration.newBuilder()
+                       .setDefaultVersion(version)
+                       .freeze())
+               .freeze());
+    return factory.getJsonSchema(schema);
+  }
+
+  @Override
+  public boolean validate(JsonSchema schema, JsonNode instance)
+      throws Exception {
+    return schema.validate(instance).isSuccess();
+  }
+
+  @Override
+  public String homepage() {
+    return "https://github.com/java-json-tools/json-schema-validator";
+  }
+}
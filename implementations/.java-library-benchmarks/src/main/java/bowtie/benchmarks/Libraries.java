@@ -0,0 +1,36 @@
+package bowtie.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+
+/**
+ * The libraries, in the order they're reported in.
+ */
+final class Libraries {
+  static final String DRAFT2020 =
+      "https://json-schema.org/draft/2020-12/schema";
+  static final String DRAFT2019 =
+      "https://json-schema.org/draft/2019-09/schema";
+  static final String DRAFT7 = "http://json-schema.org/draft-07/schema#";
+  static final String DRAFT6 = "http://json-schema.org/draft-06/schema#";
+  static final String DRAFT4 = "http://json-schema.org/draft-04/schema#";
+  static final String DRAFT3 = "http://json-schema.org/draft-03/schema#";
+
+  static final ObjectMapper JACKSON = new ObjectMapper();
+
+  static final List<Library<?, ?>> ALL =
+      List.of(new Networknt(), new Harrel(), new Sjf4j(),
+              new JsonSchemaFriend(), new JsonTools(), new React());
+
+  private Libraries() {}
+
+  @SuppressWarnings("unchecked")
+  static <D, S> Library<D, S> get(String id) {
+    for (Library<?, ?> library : ALL) {
+      if (library.harnessId().equals(id)) {
+        return (Library<D, S>)library;
+      }
+    }
+    throw new IllegalArgumentException("No such library: " + id);
+  }
+}
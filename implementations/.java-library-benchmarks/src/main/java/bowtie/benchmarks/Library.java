@@ -0,0 +1,40 @@
+package bowtie.benchmarks;
+
+import java.util.Set;
+
+/**
+ * One of the libraries wrapped by a harness, driven the way its harness
+ * drives it.
+ *
+ * @param <D> the library's form of a JSON document
+ * @param <S> a compiled schema
+ */
+interface Library<D, S> {
+  /**
+   * The id of the harness wrapping the library.
+   */
+  String harnessId();
+
+  /**
+   * The dialects the harness reports the library supports.
+   */
+  Set<String> dialects();
+
+  /**
+   * Read a JSON document into the library's form. This isn't measured.
+   */
+  D parse(String json) throws Exception;
+
+  /**
+   * Compile a schema, whose dialect is always explicit.
+   */
+  S compile(String dialect, D schema) throws Exception;
+
+  boolean validate(S schema, D instance) throws Exception;
+
+  String homepage();
+
+  default String issues() { return homepage() + "/issues"; }
+
+  default String source() { return homepage(); }
+}
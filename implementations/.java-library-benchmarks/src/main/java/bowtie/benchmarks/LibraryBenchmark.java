@@ -0,0 +1,72 @@
+package bowtie.benchmarks;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compiling a benchmark's schema, or validating one of its tests against the
+ * compiled schema, with one library.
+ *
+ * All parameters are given by {@link Report}, {@code key} being a benchmark
+ * key for {@link #compile} and a test key for {@link #validate}.
+ *
+ * Trials default to three forks, so that the variance between JVM runs (of
+ * JIT decisions, say) shows in each result's values, rather than passing for
+ * a difference between libraries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(3)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LibraryBenchmark {
+  @Param({}) public String library;
+  @Param({}) public String corpus;
+  @Param({}) public String dialect;
+  @Param({}) public String key;
+
+  private Library<Object, Object> implementation;
+  private Object schema;
+  private Object compiled;
+  private Object instance;
+
+  // JMH only generates code for states with a public constructor
+  @SuppressWarnings("PMD.UnnecessaryConstructor")
+  public LibraryBenchmark() {
+    // the parameters are only set after construction, see setUp
+  }
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    implementation = Libraries.get(library);
+    Corpus benchmarks = Corpus.load(Path.of(corpus));
+    schema = implementation.parse(benchmarks.schema(key, dialect));
+    if (Corpus.isTest(key)) {
+      compiled = implementation.compile(dialect, schema);
+      instance = implementation.parse(benchmarks.instance(key));
+    }
+  }
+
+  @Benchmark
+  public Object compile() throws Exception {
+    return implementation.compile(dialect, schema);
+  }
+
+  @Benchmark
+  public boolean validate() throws Exception {
+    return implementation.validate(compiled, instance);
+  }
+}
@@ -0,0 +1,68 @@
+package bowtie.benchmarks;
+
+import com.networknt.schema.Schema;
+import com.networknt.schema.SchemaRegistry;
+import com.networknt.schema.SpecificationVersion;
+import java.util.List;
+import java.util.Set;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+final class Networknt implements Library<JsonNode, Schema> {
+  private final JsonMapper mapper;
+
+  Networknt() {
+    mapper = JsonMapper.builder().build();
+  }
+
+  @Override
+  public String harnessId() {
+    return "java-networknt-json-schema-validator";
+  }
+
+  @Override
+  public Set<String> dialects() {
+    return Set.of(Libraries.DRAFT2020, Libraries.DRAFT2019, Libraries.DRAFT7,
+                  Libraries.DRAFT6, Libraries.DRAFT4);
+  }
+
+  @Override
+  public JsonNode parse(String json) {
+    return mapper.readTree(json);
+  }
+
+  @Override
+  public Schema compile(String dialect, JsonNode schema) {
+    SchemaRegistry registry = SchemaRegistry.withDefaultDialect(
+        version(dialect),
+        builder
+        -> builder.schemaIdResolvers(
+            schemaIdResolvers
+            -> schemaIdResolvers
+                   .mapPrefix("https://json-schema.org", "classpath:")
+                   .mapPrefix("http://json-schema.org", "classpath:")));
+    return registry.getSchema(schema);
+  }
+
+  @Override
+  public boolean validate(Schema schema, JsonNode instance) {
+    List<com.networknt.schema.Error> errors = schema.validate(instance);
+    return errors == null || errors.isEmpty();
+  }
+
+  @Override
+  public String homepage() {
+    return "https://github.com/networknt/json-schema-validator";
+  }
+
+  private static SpecificationVersion version(String dialect) {
+    return switch (dialect) {
+    case Libraries.DRAFT2020 -> SpecificationVersion.DRAFT_2020_12;
+    case Libraries.DRAFT2019 -> SpecificationVersion.DRAFT_2019_09;
+    case Libraries.DRAFT7 -> SpecificationVersion.DRAFT_7;
+    case Libraries.DRAFT6 -> SpecificationVersion.DRAFT_6;
+    case Libraries.DRAFT4 -> SpecificationVersion.DRAFT_4;
+    default -> throw new IllegalArgumentException(dialect);
+    };
+  }
+}
@@ -0,0 +1,52 @@
+package bowtie.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.georgeakulov.json_schema.Schema;
+import io.github.georgeakulov.json_schema.SchemaBuilder;
+import io.github.georgeakulov.json_schema.common.URIUtils;
+import io.github.georgeakulov.json_schema.dialects.Defaults;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+
+final class React implements Library<JsonNode, Schema> {
+  private final Set<String> dialects;
+
+  React() {
+    dialects = Set.of(Defaults.DIALECT_2020_12.toString(),
+                      Defaults.DIALECT_2019_09.toString(),
+                      Defaults.DIALECT_07.toString());
+  }
+
+  @Override
+  public String harnessId() {
+    return "java-json-schema-react";
+  }
+
+  @Override
+  public Set<String> dialects() {
+    return dialects;
+  }
+
+  @Override
+  public JsonNode parse(String json) throws IOException {
+    return Libraries.JACKSON.readTree(json);
+  }
+
+  @Override
+  public Schema compile(String dialect, JsonNode schema) {
+    return SchemaBuilder.create()
+        .setDefaultDialect(URIUtils.clearEmptyFragments(URI.create(dialect)))
+        .compile(schema);
+  }
+
+  @Override
+  public boolean validate(Schema schema, JsonNode instance) {
+    return schema.apply(instance).isOk();
+  }
+
+  @Override
+  public String homepage() {
+    return "https://github.com/georgeakulov/json-schema";
+  }
+}
@@ -0,0 +1,253 @@
+package bowtie.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.BenchmarkResultMetaData;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link LibraryBenchmark} over a corpus, and writes what it measured as
+ * a Bowtie benchmark report.
+ *
+ * Each benchmark's results start with a {@code compile} result for its schema,
+ * followed by a result for validating each of its tests.
+ */
+public final class Report {
+  private static final String DEFAULT_DIALECT =
+      "https://json-schema.org/draft/2020-12/schema";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final double NANOSECONDS = 1e9;
+
+  private Report() {}
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      throw new IllegalArgumentException(
+          "usage: Report CORPUS REPORT [JMH OPTIONS...]");
+    }
+    Path corpusPath = Path.of(args[0]).toAbsolutePath();
+    Path reportPath = Path.of(args[1]);
+    CommandLineOptions options =
+        new CommandLineOptions(Arrays.copyOfRange(args, 2, args.length));
+
+    String dialect = options.getParameter("dialect")
+                         .orElse(List.of(DEFAULT_DIALECT))
+                         .iterator()
+                         .next();
+    List<String> libraries = libraries(options, dialect);
+
+    Corpus corpus = Corpus.load(corpusPath);
+    Instant started = Instant.now();
+    Map<String, Map<String, RunResult>> compiled =
+        run(options, "compile", corpusPath, dialect, libraries,
+            corpus.benchmarks(dialect));
+    Map<String, Map<String, RunResult>> validated =
+        run(options, "validate", corpusPath, dialect, libraries,
+            corpus.tests(dialect));
+
+    ObjectNode report = MAPPER.createObjectNode();
+    report.set("metadata", metadata(options, corpus, dialect, libraries,
+                                    started, compiled, validated));
+    ArrayNode results = report.putArray("results");
+    JsonNode groups = corpus.groups();
+    corpus.benchmarks(dialect)
+        .stream()
+        .collect(Collectors.groupingBy(Corpus::group, LinkedHashMap::new,
+                                       Collectors.toList()))
+        .forEach((group, keys)
+                     -> groupResult(results.addObject(), groups.get(group),
+                                    keys, libraries, compiled, validated));
+    MAPPER.writerWithDefaultPrettyPrinter().writeValue(reportPath.toFile(),
+                                                       report);
+  }
+
+  /**
+   * The libraries asked for, or else all of those supporting the dialect.
+   */
+  private static List<String> libraries(CommandLineOptions options,
+                                        String dialect) {
+    if (options.getParameter("library").hasValue()) {
+      return new ArrayList<>(options.getParameter("library").get());
+    }
+    return Libraries.ALL.stream()
+        .filter(library -> library.dialects().contains(dialect))
+        .map(Library::harnessId)
+        .toList();
+  }
+
+  /**
+   * Fill in the result of a group from those of the given benchmarks in it.
+   */
+  private static void
+  groupResult(ObjectNode groupResult, JsonNode group, List<String> keys,
+              List<String> libraries,
+              Map<String, Map<String, RunResult>> compiled,
+              Map<String, Map<String, RunResult>> validated) {
+    groupResult.put("name", group.get("name").asText());
+    groupResult.put("benchmark_type", group.get("benchmark_type").asText());
+    groupResult.put("description", group.get("description").asText());
+    groupResult.set("varying_parameter", group.get("varying_parameter"));
+    ArrayNode benchmarkResults = groupResult.putArray("benchmark_results");
+    for (String key : keys) {
+      JsonNode benchmark = group.get("benchmarks").get(Corpus.index(key));
+      ObjectNode benchmarkResult = benchmarkResults.addObject();
+      benchmarkResult.put("name", benchmark.get("name").asText());
+      benchmarkResult.put("description",
+                          benchmark.get("description").asText());
+      ArrayNode testResults = benchmarkResult.putArray("test_results");
+      testResults.add(testResult("compile", libraries, compiled.get(key)));
+      JsonNode tests = benchmark.get("tests");
+      for (int t = 0; t < tests.size(); t++) {
+        testResults.add(
+            testResult(tests.get(t).get("description").asText(), libraries,
+                       validated.get(key + "/" + t)));
+      }
+    }
+  }
+
+  /**
+   * Run one of the benchmark methods for each library and key, by key and
+   * library. Failing runs are left out rather than stopping the others.
+   */
+  private static Map<String, Map<String, RunResult>>
+  run(Options parent, String method, Path corpus, String dialect,
+      List<String> libraries, List<String> keys) throws Exception {
+    if (keys.isEmpty() || libraries.isEmpty()) {
+      return Map.of();
+    }
+    Options options =
+        new OptionsBuilder()
+            .parent(parent)
+            .include(
+                Pattern.quote(LibraryBenchmark.class.getName() + "." + method) +
+                "$")
+            .param("library", libraries.toArray(String[] ::new))
+            .param("corpus", corpus.toString())
+            .param("dialect", dialect)
+            .param("key", keys.toArray(String[] ::new))
+            .shouldFailOnError(false)
+            .build();
+    return new Runner(options).run().stream().collect(Collectors.groupingBy(
+        result
+        -> result.getParams().getParam("key"),
+        Collectors.toMap(result -> result.getParams().getParam("library"),
+                         Function.identity())));
+  }
+
+  private static ObjectNode testResult(String description,
+                                       List<String> libraries,
+                                       Map<String, RunResult> results) {
+    ObjectNode testResult = MAPPER.createObjectNode();
+    testResult.put("description", description);
+    ArrayNode connectableResults = testResult.putArray("connectable_results");
+    for (String library : libraries) {
+      RunResult result = results == null ? null : results.get(library);
+      ObjectNode connectableResult = connectableResults.addObject();
+      connectableResult.put("connectable_id", library);
+      if (result == null) {
+        connectableResult.put("duration", 0);
+        connectableResult.putArray("values");
+        connectableResult.put("errored", true);
+        continue;
+      }
+      double duration = 0;
+      ArrayNode values = MAPPER.createArrayNode();
+      for (BenchmarkResult fork : result.getBenchmarkResults()) {
+        BenchmarkResultMetaData metadata = fork.getMetadata();
+        if (metadata != null) {
+          duration += (metadata.getStopTime() - metadata.getStartTime()) / 1e3;
+        }
+        for (IterationResult iteration : fork.getIterationResults()) {
+          values.add(iteration.getPrimaryResult().getScore() / NANOSECONDS);
+        }
+      }
+      connectableResult.put("duration", duration);
+      connectableResult.set("values", values);
+      connectableResult.put("errored", false);
+    }
+    return testResult;
+  }
+
+  private static ObjectNode
+  metadata(Options options, Corpus corpus, String dialect,
+           List<String> libraries, Instant started,
+           Map<String, Map<String, RunResult>> compiled,
+           Map<String, Map<String, RunResult>> validated) throws Exception {
+    ObjectNode metadata = MAPPER.createObjectNode();
+    ObjectNode implementations = metadata.putObject("implementations");
+    for (String id : libraries) {
+      Library<?, ?> library = Libraries.get(id);
+      String[] coordinates = System.getProperty("bowtie.library." + id, "::")
+                                 .split(":", -1);
+      ObjectNode implementation = implementations.putObject(id);
+      implementation.put("language", "java");
+      implementation.put("name", coordinates[0] + "." + coordinates[1]);
+      if (!coordinates[2].isEmpty()) {
+        implementation.put("version", coordinates[2]);
+      }
+      ArrayNode dialects = implementation.putArray("dialects");
+      library.dialects().stream().sorted().forEach(dialects::add);
+      implementation.put("homepage", library.homepage());
+      implementation.put("issues", library.issues());
+      implementation.put("source", library.source());
+    }
+
+    RunResult any = any(compiled);
+    if (any == null) {
+      any = any(validated);
+    }
+    if (any != null) {
+      metadata.put("num_runs", any.getParams().getForks());
+      metadata.put("num_values", any.getParams().getMeasurement().getCount());
+      metadata.put("num_warmups", any.getParams().getWarmup().getCount());
+    } else {
+      metadata.put("num_runs", options.getForkCount().orElse(0));
+      metadata.put("num_values",
+                   options.getMeasurementIterations().orElse(0));
+      metadata.put("num_warmups", options.getWarmupIterations().orElse(0));
+    }
+    metadata.put("num_loops", 1);
+
+    ObjectNode system = metadata.putObject("system_metadata");
+    system.put("cpu_count", Runtime.getRuntime().availableProcessors());
+    system.put("hostname", InetAddress.getLocalHost().getHostName());
+    system.put("perf_version",
+               "JMH " + System.getProperty("bowtie.jmh.version", "unknown"));
+    system.put("platform", System.getProperty("os.name") + "-" +
+                               System.getProperty("os.version") + "-" +
+                               System.getProperty("os.arch"));
+    system.put("unit", "second");
+
+    metadata.put("bowtie_version", corpus.bowtieVersion());
+    metadata.put("dialect", dialect);
+    metadata.put("started", started.toString());
+    return metadata;
+  }
+
+  private static RunResult any(Map<String, Map<String, RunResult>> results) {
+    return results.values()
+        .stream()
+        .flatMap(byLibrary -> byLibrary.values().stream())
+        .findFirst()
+        .orElse(null);
+  }
+}
@@ -0,0 +1,60 @@
+package bowtie.benchmarks;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.sjf4j.JsonObject;
+import org.sjf4j.schema.JsonSchema;
+import org.sjf4j.schema.SchemaDialect;
+import org.sjf4j.schema.SchemaPlan;
+import org.sjf4j.schema.SchemaRegistry;
+
+final class Sjf4j implements Library<Object, SchemaPlan> {
+  private final Map<String, SchemaRegistry> registries;
+
+  Sjf4j() {
+    registries = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public String harnessId() {
+    return "java-sjf4j";
+  }
+
+  @Override
+  public Set<String> dialects() {
+    return Set.of(Libraries.DRAFT2020, Libraries.DRAFT2019, Libraries.DRAFT7);
+  }
+
+  @Override
+  public Object parse(String json) {
+    return JsonObject.fromJson("{\"document\":" + json + "}")
+        .getNode("document");
+  }
+
+  @Override
+  public SchemaPlan compile(String dialect, Object schema) {
+    SchemaRegistry registry = registries.computeIfAbsent(
+        dialect, each -> new SchemaRegistry(version(each)));
+    return JsonSchema.fromNode(schema).createPlan(registry);
+  }
+
+  @Override
+  public boolean validate(SchemaPlan schema, Object instance) {
+    return schema.isValid(instance);
+  }
+
+  @Override
+  public String homepage() {
+    return "https://github.com/sjf4j-projects/sjf4j";
+  }
+
+  private static SchemaDialect version(String dialect) {
+    return switch (dialect) {
+    case Libraries.DRAFT2020 -> SchemaDialect.DRAFT_2020_12;
+    case Libraries.DRAFT2019 -> SchemaDialect.DRAFT_2019_09;
+    case Libraries.DRAFT7 -> SchemaDialect.DRAFT_07;
+    default -> throw new IllegalArgumentException(dialect);
+    };
+  }
+}
@@ -0,0 +1,50 @@
+package bowtie;
+
+import java.io.PrintStream;
+
+/**
+ * Time spent on the protocol rather than in the library, measured when
+ * calibrating (BOWTIE_JSON_SCHEMA_REACT_CALIBRATE=true). In that mode run
+ * commands are still fully decoded and answered with correctly shaped
+ * responses, but nothing is compiled or validated (every test is reported
+ * valid), so that benchmarking in both modes tells the protocol's share of
+ * a run apart from the library's.
+ */
+final class CodecTimes {
+  private long parse;
+  private long bind;
+  private long encode;
+  private long write;
+  private int commands;
+
+  private CodecTimes() {
+    // only made when calibrating, see calibrating()
+  }
+
+  /**
+   * Times to add to when calibrating, or null when not.
+   */
+  static CodecTimes calibrating() {
+    return Boolean.parseBoolean(
+               System.getenv("BOWTIE_JSON_SCHEMA_REACT_CALIBRATE"))
+        ? new CodecTimes()
+        : null;
+  }
+
+  void parsed(long parse) { this.parse += parse; }
+
+  void add(long bind, long encode, long write) {
+    this.bind += bind;
+    this.encode += encode;
+    this.write += write;
+    commands++;
+  }
+
+  void report(PrintStream err) {
+    err.printf("calibration: %d commands, parse %d us, bind %d us, "
+                   + "encode %d us, write %d us%n",
+               commands, parse / 1_000, bind / 1_000, encode / 1_000,
+               write / 1_000);
+    err.flush();
+  }
+}
@@ -0,0 +1,109 @@
+package bowtie;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR events for the phases of handling a command, which are only recorded
+ * when a recording is running (see {@link #record(String)}).
+ */
+@Category({"Bowtie", "json-schema-react"})
+@StackTrace(false)
+abstract class CommandEvent extends Event {
+  @Label("Command") String command;
+  @Label("Seq") String seq;
+  @Label("Case") String description;
+
+  protected CommandEvent() {
+    // described by the harness once the phase has ended, if committing
+  }
+
+  /**
+   * Record (with JFR's default settings, plus this harness's own events) into
+   * the given directory, which is written to when the JVM exits, be that on a
+   * stop command or on a signal.
+   */
+  static void record(String directory) throws IOException, ParseException {
+    Recording recording =
+        new Recording(Configuration.getConfiguration("default"));
+    recording.setName("bowtie");
+    recording.setDestination(Path.of(directory).resolve(
+        "json-schema-react-" + ProcessHandle.current().pid() + ".jfr"));
+    recording.setDumpOnExit(true);
+    recording.start();
+  }
+
+  void describe(JsonNode node) {
+    command = node.path("cmd").asText();
+    if (node.has("seq")) {
+      seq = node.get("seq").toString();
+    }
+    description = node.path("case").path("description").asText(null);
+  }
+
+  void describeRun(JsonNode seq, String description) {
+    this.command = "run";
+    this.seq = seq.toString();
+    this.description = description;
+  }
+
+  /**
+   * The number of JSON values making up a node.
+   */
+  private static int size(JsonNode node) {
+    int size = 1;
+    for (JsonNode child : node) {
+      size += size(child);
+    }
+    return size;
+  }
+
+  @Name("bowtie.Decode")
+  @Label("Decode Command")
+  static final class Decode extends CommandEvent {}
+
+  @Name("bowtie.Compile")
+  @Label("Compile Schema")
+  static final class Compile extends CommandEvent {}
+
+  @Name("bowtie.Apply")
+  @Label("Apply Schema")
+  static final class Apply extends CommandEvent {
+    @Label("Test Index") int test;
+    @Label("Instance Size")
+    @Description("The number of JSON values making up the instance")
+    int instanceSize;
+    // not a type JFR records, so left out of the event itself
+    private final JsonNode instance;
+
+    Apply(int test, JsonNode instance) {
+      super();
+      this.test = test;
+      this.instance = instance;
+    }
+
+    /**
+     * Also size the instance, which is only worth doing for events which
+     * will be committed.
+     */
+    @Override
+    void describeRun(JsonNode seq, String description) {
+      super.describeRun(seq, description);
+      instanceSize = size(instance);
+    }
+  }
+
+  @Name("bowtie.Encode")
+  @Label("Encode Response")
+  static final class Encode extends CommandEvent {}
+}
@@ -12,9 +12,11 @@ import io.github.georgeakulov.json_schema.dialects.Defaults;
 import java.io.*;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
 import java.util.*;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
+import java.util.stream.IntStream;
 
 public final class JsonSchemaValidator {
 
@@ -23,18 +25,29 @@ public final class JsonSchemaValidator {
   private static final Set<URI> SUPPORTED_DIALECTS = Set.of(
       Defaults.DIALECT_2020_12, Defaults.DIALECT_2019_09, Defaults.DIALECT_07);
 
+  /**
+   * What every test gets when calibrating, instead of being validated.
+   */
+  private static final TestResult CALIBRATION_RESULT = new TestResult(true);
+
   private final PrintStream ps;
   private final Attributes attributes;
+  private final CodecTimes codecTimes;
   private URI usedDialect;
 
   private JsonSchemaValidator(PrintStream ps) throws IOException {
     this.ps = ps;
+    this.codecTimes = CodecTimes.calibrating();
     InputStream is = Objects.requireNonNull(
         getClass().getResourceAsStream("/META-INF/MANIFEST.MF"));
     this.attributes = new Manifest(is).getMainAttributes();
   }
 
-  public static void main(String[] args) throws IOException {
+  public static void main(String[] args) throws IOException, ParseException {
+    String recordings = System.getenv("BOWTIE_JSON_SCHEMA_REACT_JFR");
+    if (recordings != null) {
+      CommandEvent.record(recordings);
+    }
     new JsonSchemaValidator(System.out)
         .loop(new BufferedReader(
             new InputStreamReader(System.in, StandardCharsets.UTF_8)));
@@ -44,12 +57,20 @@ public final class JsonSchemaValidator {
 
   private void dispatch(String line) {
 
+    CommandEvent decoding = new CommandEvent.Decode();
+    decoding.begin();
+    long started = codecNow();
     JsonNode cmd = JsonUtils.parse(line);
+    if (codecTimes != null) {
+      codecTimes.parsed(System.nanoTime() - started);
+    }
     switch (cmd.path("cmd").asText()) {
-    case "start" -> dispatchReq(cmd, StartReq.class, this::handleStart);
-    case "dialect" -> dispatchReq(cmd, DialectReq.class, this::handleDialect);
-    case "run" -> dispatchReq(cmd, RunReq.class, this::handlerRun);
-    case "stop" -> System.exit(0);
+    case "start" ->
+      dispatchReq(cmd, decoding, StartReq.class, this::handleStart);
+    case "dialect" ->
+      dispatchReq(cmd, decoding, DialectReq.class, this::handleDialect);
+    case "run" -> dispatchReq(cmd, decoding, RunReq.class, this::handlerRun);
+    case "stop" -> handleStop();
     default ->
       throw new IllegalArgumentException("Unsupported command: " + cmd);
     }
@@ -77,7 +98,20 @@ public final class JsonSchemaValidator {
     return new DialectRsp(true);
   }
 
-  private RunRsp handlerRun(RunReq req) {
+  private void handleStop() {
+    if (codecTimes != null) {
+      codecTimes.report(System.err);
+    }
+    System.exit(0);
+  }
+
+  private Object handlerRun(RunReq req) {
+    if (codecTimes != null) {
+      return new RunRsp(req.seq, req.testCase.tests.stream()
+                                     .map(test -> CALIBRATION_RESULT)
+                                     .toList());
+    }
+
     SchemaBuilder builder =
         SchemaBuilder.create().setDefaultDialect(usedDialect);
 
@@ -86,22 +120,77 @@ public final class JsonSchemaValidator {
       req.testCase.registry.forEachEntry(builder::addMappingIdToSchema);
     }
 
+    CommandEvent compiling = new CommandEvent.Compile();
+    compiling.begin();
     Schema schema = builder.compile(req.testCase.schema);
+    compiling.end();
+    if (compiling.shouldCommit()) {
+      compiling.describeRun(req.seq, req.testCase.description);
+      compiling.commit();
+    }
 
-    return new RunRsp(
-        req.seq,
-        req.testCase.tests.stream()
-            .map(test -> new TestResult(schema.apply(test.instance).isOk()))
-            .toList());
+    if (req.repeat != null) {
+      return Repetition.run(
+          req.seq, schema,
+          req.testCase.tests.stream().map(Test::instance).toList(), req.repeat);
+    }
+
+    return new RunRsp(req.seq,
+                      IntStream.range(0, req.testCase.tests.size())
+                          .mapToObj(i -> new TestResult(apply(req, schema, i)))
+                          .toList());
+  }
+
+  private boolean apply(RunReq req, Schema schema, int index) {
+    JsonNode instance = req.testCase.tests.get(index).instance;
+    CommandEvent applying = new CommandEvent.Apply(index, instance);
+    applying.begin();
+    boolean valid = schema.apply(instance).isOk();
+    applying.end();
+    if (applying.shouldCommit()) {
+      applying.describeRun(req.seq, req.testCase.description);
+      applying.commit();
+    }
+    return valid;
+  }
+
+  /**
+   * The time now when calibrating, and otherwise 0 without reading the
+   * clock, so that the codec timings cost nothing outside of calibration.
+   */
+  private long codecNow() {
+    return codecTimes == null ? 0 : System.nanoTime();
   }
 
-  private <T> void dispatchReq(JsonNode node, Class<T> reqType,
+  private <T> void dispatchReq(JsonNode node, CommandEvent decoding,
+                               Class<T> reqType,
                                ExceptionableFn<T, Object> dispatcher) {
     try {
+      long started = codecNow();
       T req = MAPPER.treeToValue(node, reqType);
+      long bound = codecNow();
+      decoding.end();
+      if (decoding.shouldCommit()) {
+        decoding.describe(node);
+        decoding.commit();
+      }
       Object rsp = dispatcher.apply(req);
-      ps.println(MAPPER.writeValueAsString(rsp));
+      long handled = codecNow();
+      CommandEvent encoding = new CommandEvent.Encode();
+      encoding.begin();
+      String json = MAPPER.writeValueAsString(rsp);
+      encoding.end();
+      long encoded = codecNow();
+      if (encoding.shouldCommit()) {
+        encoding.describe(node);
+        encoding.commit();
+      }
+      ps.println(json);
       ps.flush();
+      if (codecTimes != null) {
+        codecTimes.add(bound - started, encoded - handled,
+                       System.nanoTime() - encoded);
+      }
     } catch (Exception thr) {
       throw new IllegalArgumentException("Error on dispatch request:" + node,
                                          thr);
@@ -118,8 +207,8 @@ public final class JsonSchemaValidator {
   private record DialectReq(String dialect) {}
   private record DialectRsp(boolean ok) {}
 
-  private record RunReq(JsonNode seq, @JsonProperty("case") TestCase testCase) {
-  }
+  private record RunReq(JsonNode seq, @JsonProperty("case") TestCase testCase,
+                        @JsonProperty(Repetition.KEY) Repetition.Request repeat) {}
   private record TestCase(String description, String comment, JsonNode schema,
                           JsonNode registry, List<Test> tests) {}
   private record Test(String description, String comment, JsonNode instance,
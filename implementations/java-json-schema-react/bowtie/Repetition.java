@@ -0,0 +1,141 @@
+package bowtie;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.georgeakulov.json_schema.Schema;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Applying each test's instance repeatedly in-process (an opt-in extension of
+ * the run command), timing each application on its own, so that the timings
+ * exclude everything but the library: the protocol round trip, decoding and
+ * encoding, compiling the schema.
+ */
+final class Repetition {
+  /**
+   * The key repetition is asked for and reported under, prefixed as the Java
+   * harnesses' other extensions to the protocol are (Bowtie never sends it).
+   */
+  static final String KEY = "x-java-repeat";
+
+  private Repetition() {
+    // static methods only
+  }
+
+  /**
+   * Apply each instance as asked, responding with whether every application
+   * of it was valid along with the timings of its timed applications.
+   */
+  static Response run(JsonNode seq, Schema schema, List<JsonNode> instances,
+                      Request request) {
+    if (request.iterations() < 1 || request.warmup() < 0) {
+      throw new IllegalArgumentException("Invalid repeat: " + request);
+    }
+    List<Applied> applied =
+        instances.stream()
+            .map(instance -> apply(schema, instance, request))
+            .toList();
+    return new Response(
+        seq, applied.stream().map(Applied::result).toList(),
+        new Timings(CalibratedClock.CLOCK,
+                    applied.stream().map(Applied::nanos).toList()));
+  }
+
+  private static Applied apply(Schema schema, JsonNode instance,
+                               Request request) {
+    boolean valid = schema.apply(instance).isOk();
+    for (int i = 0; i < request.warmup(); i++) {
+      valid &= schema.apply(instance).isOk();
+    }
+    long[] samples = new long[request.iterations()];
+    for (int i = 0; i < samples.length; i++) {
+      long start = System.nanoTime();
+      boolean ok = schema.apply(instance).isOk();
+      samples[i] = System.nanoTime() - start;
+      valid &= ok;
+    }
+    return new Applied(new Result(valid), Timing.fromSamples(samples));
+  }
+
+  /**
+   * How many times to apply each instance before timing it, and how many
+   * (separately timed) times to apply it after that.
+   */
+  record Request(int warmup, int iterations) {}
+
+  /**
+   * What a repeated run responds with.
+   */
+  record Response(JsonNode seq, List<Result> results,
+                  @JsonProperty(KEY) Timings repeat) {}
+
+  record Result(boolean valid) {}
+
+  /**
+   * The timings of a repeated run, kept apart from its results so that the
+   * rest of the response is an ordinary one, with one entry per test.
+   */
+  record Timings(Clock clock, List<Timing> nanos) {}
+
+  private record Applied(Result result, Timing nanos) {}
+
+  /**
+   * Nanoseconds per application of an instance, from its timed iterations.
+   * Each sample includes the clock's overhead once.
+   */
+  record Timing(long min, long median, long p90, long p99, long max) {
+    static Timing fromSamples(long... samples) {
+      Arrays.sort(samples);
+      return new Timing(samples[0], percentile(samples, 50),
+                        percentile(samples, 90), percentile(samples, 99),
+                        samples[samples.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+      int rank = (int)Math.ceil(sorted.length * percent / 100.0);
+      return sorted[Math.max(rank, 1) - 1];
+    }
+  }
+
+  /**
+   * The clock timings come from.
+   *
+   * Samples are taken with {@link System#nanoTime()}. Its granularity is the
+   * smallest step it was seen to advance by, and its overhead the median
+   * time between two back-to-back readings, which is what timing an
+   * application adds to each sample (both in nanoseconds). Neither is
+   * subtracted from the samples; both are reported so that consumers can
+   * tell which timings are meaningful.
+   */
+  record Clock(String source, long granularity, long overhead) {
+    private static final int CALIBRATION_SAMPLES = 10_001;
+
+    static Clock calibrate() {
+      long granularity = Long.MAX_VALUE;
+      for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+        long start = System.nanoTime();
+        long next = System.nanoTime();
+        while (next == start) {
+          next = System.nanoTime();
+        }
+        granularity = Math.min(granularity, next - start);
+      }
+      long[] overheads = new long[CALIBRATION_SAMPLES];
+      for (int i = 0; i < overheads.length; i++) {
+        long start = System.nanoTime();
+        overheads[i] = System.nanoTime() - start;
+      }
+      Arrays.sort(overheads);
+      return new Clock("System.nanoTime", granularity,
+                       overheads[overheads.length / 2]);
+    }
+  }
+
+  /**
+   * Holds the clock, calibrated once when a run is first repeated.
+   */
+  private static final class CalibratedClock {
+    static final Clock CLOCK = Clock.calibrate();
+  }
+}
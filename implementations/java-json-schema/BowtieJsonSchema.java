@@ -1,5 +1,6 @@
-import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import bowtie.ihop.CommandDecoder;
+import bowtie.ihop.PhaseTimings;
+import bowtie.ihop.Protocol;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -21,13 +22,16 @@ import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 import java.util.stream.Collectors;
 
-public class BowtieJsonSchema {
+public class BowtieJsonSchema implements CommandDecoder.Handler<JsonNode> {
   private final Map<String, Dialect> dialectsMap;
   private final ValidatorFactory validatorFactory = new ValidatorFactory();
 
   private final ObjectMapper objectMapper = new ObjectMapper().configure(
       DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private final CommandDecoder<JsonNode> decoder =
+      CommandDecoder.forTrees(objectMapper);
   private final PrintStream output;
+  private final PhaseTimings timings = new PhaseTimings();
   private boolean started;
 
   public static void main(String[] args) {
@@ -62,29 +66,21 @@ public class BowtieJsonSchema {
 
   private void handle(String data) {
     try {
-      JsonNode node = objectMapper.readTree(data);
-      String cmd = node.get("cmd").asText();
-      switch (cmd) {
-      case "start" -> start(node);
-      case "dialect" -> dialect(node);
-      case "run" -> run(node);
-      case "stop" -> System.exit(0);
-      default ->
-        throw new IllegalArgumentException("Unknown cmd [%s]".formatted(cmd));
-      }
+      timings.begin();
+      decoder.decode(data, this);
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
   }
 
-  private void start(JsonNode node) throws IOException {
+  @Override
+  public void start(Protocol.StartRequest startRequest) throws IOException {
     started = true;
-    StartRequest startRequest =
-        objectMapper.treeToValue(node, StartRequest.class);
     if (startRequest.version() != 1) {
       throw new IllegalArgumentException(
           "Unsupported IHOP version [%d]".formatted(startRequest.version()));
     }
+    timings.enable(startRequest.timings());
 
     InputStream is = getClass().getResourceAsStream("META-INF/MANIFEST.MF");
     var attributes = new Manifest(is).getMainAttributes();
@@ -92,8 +88,8 @@ public class BowtieJsonSchema {
     String fullName =
         "%s.%s".formatted(attributes.getValue("Implementation-Group"),
                             attributes.getValue("Implementation-Name"));
-    StartResponse startResponse = new StartResponse(
-        1, new Implementation(
+    Protocol.StartResponse startResponse = new Protocol.StartResponse(
+        1, new Protocol.Implementation(
                "java", fullName, attributes.getValue("Implementation-Version"),
                Arrays.stream(SpecificationVersion.values())
                    .map(SpecificationVersion::getId)
@@ -105,29 +101,32 @@ public class BowtieJsonSchema {
                "https://github.com/harrel56/json-schema",
                System.getProperty("os.name"), System.getProperty("os.version"),
                Runtime.version().toString(),
-               List.of(new Link("https://harrel.dev", "Group homepage"),
-                       new Link(createMavenUrl("Implementation", attributes),
-                                "Maven Central - implementation"),
-                       new Link(createMavenUrl("Provider", attributes),
-                                "Maven Central - used JSON provider"))));
+               List.of(new Protocol.Link("https://harrel.dev",
+                                         "Group homepage"),
+                       new Protocol.Link(
+                           createMavenUrl("Implementation", attributes),
+                           "Maven Central - implementation"),
+                       new Protocol.Link(
+                           createMavenUrl("Provider", attributes),
+                           "Maven Central - used JSON provider"))));
     output.println(objectMapper.writeValueAsString(startResponse));
   }
 
-  private void dialect(JsonNode node) throws JsonProcessingException {
+  @Override
+  public void dialect(Protocol.DialectRequest dialectRequest)
+      throws IOException {
     if (!started) {
       throw new IllegalArgumentException("Not started!");
     }
 
-    DialectRequest dialectRequest =
-        objectMapper.treeToValue(node, DialectRequest.class);
-
     try {
       setDialectFor(this.dialectsMap.get(dialectRequest.dialect()));
     } catch (Exception e) {
       throw new IllegalStateException("Failed to set Dialect", e);
     }
 
-    DialectResponse dialectResponse = new DialectResponse(true);
+    Protocol.DialectResponse dialectResponse =
+        new Protocol.DialectResponse(true);
     output.println(objectMapper.writeValueAsString(dialectResponse));
   }
 
@@ -141,11 +140,13 @@ public class BowtieJsonSchema {
     }
   }
 
-  private void run(JsonNode node) throws JsonProcessingException {
+  @Override
+  public void run(Protocol.RunRequest<JsonNode> runRequest)
+      throws IOException {
+    timings.decoded();
     if (!started) {
       throw new IllegalArgumentException("Not started!");
     }
-    RunRequest runRequest = objectMapper.treeToValue(node, RunRequest.class);
 
     try {
 
@@ -154,27 +155,45 @@ public class BowtieJsonSchema {
             new RegistrySchemaResolver(runRequest.testCase().registry()));
       }
 
-      List<TestResult> results =
-          runRequest.testCase()
-              .tests()
-              .stream()
-              .map(test -> {
-                Validator.Result result = validatorFactory.validate(
-                    runRequest.testCase().schema(), test.instance());
-                return new TestResult(result.isValid());
-              })
-              .toList();
-      output.println(objectMapper.writeValueAsString(
-          new RunResponse(runRequest.seq(), results)));
+      List<Protocol.TestResult> results = validate(runRequest);
+      output.println(timings.encoded(
+          new Protocol.RunResponse<>(runRequest.seq(), results), objectMapper));
     } catch (Exception e) {
-      StringWriter stringWriter = new StringWriter();
-      PrintWriter printWriter = new PrintWriter(stringWriter);
-      e.printStackTrace(printWriter);
-      RunErroredResponse response = new RunErroredResponse(
-          runRequest.seq(), true,
-          new ErrorContext(e.getMessage(), stackTraceToString(e)));
-      output.println(objectMapper.writeValueAsString(response));
+      Protocol.RunErroredResponse<JsonNode> response =
+          new Protocol.RunErroredResponse<>(
+              runRequest.seq(), true,
+              new Protocol.ErrorContext(e.getMessage(), stackTraceToString(e)));
+      output.println(timings.encoded(response, objectMapper));
+    }
+  }
+
+  /**
+   * Compile the case's schema once, then validate each of its tests against
+   * it. A case without tests compiles nothing, as it never has.
+   */
+  private List<Protocol.TestResult>
+  validate(Protocol.RunRequest<JsonNode> runRequest) {
+    var testCase = runRequest.testCase();
+    if (testCase.tests().isEmpty()) {
+      return List.of();
     }
+    var validator = validatorFactory.createValidator();
+    var schemaUri = validator.registerSchema(testCase.schema());
+    timings.compiled();
+    return testCase.tests()
+        .stream()
+        .map(test -> {
+          Validator.Result result =
+              validator.validate(schemaUri, test.instance());
+          timings.validated();
+          return new Protocol.TestResult(result.isValid());
+        })
+        .toList();
+  }
+
+  @Override
+  public void stop(Protocol.StopRequest stopRequest) {
+    System.exit(0);
   }
 
   private String createMavenUrl(String prefix, Attributes attributes) {
@@ -207,40 +226,3 @@ public class BowtieJsonSchema {
     }
   }
 }
-
-record StartRequest(int version) {}
-
-record StartResponse(int version, Implementation implementation) {}
-
-record DialectRequest(String dialect) {}
-
-record DialectResponse(boolean ok) {}
-
-record RunRequest(JsonNode seq, @JsonProperty("case") TestCase testCase) {}
-
-record RunResponse(JsonNode seq, List<TestResult> results) {}
-
-record RunSkippedResponse(JsonNode seq, boolean skipped, String message,
-                          String issue_url) {}
-
-record RunErroredResponse(JsonNode seq, boolean errored, ErrorContext context) {
-}
-
-record ErrorContext(String message, String traceback) {}
-
-record
-    Implementation(String language, String name, String version,
-                   List<String> dialects, String homepage, String documentation,
-                   String issues, String source, String os, String os_version,
-                   String language_version, List<Link> links) {}
-
-record Link(String url, String description) {}
-
-record TestCase(String description, String comment, JsonNode schema,
-                JsonNode registry, List<Test> tests) {}
-
-record
-    Test(String description, String comment, JsonNode instance, boolean valid) {
-}
-
-record TestResult(boolean valid) {}
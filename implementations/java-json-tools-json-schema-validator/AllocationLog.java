@@ -0,0 +1,123 @@
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records what each case costs in memory, for telling apart benchmark
+ * samples which include a garbage collection from those which don't.
+ *
+ * For each case, a line of JSON keyed by the case's seq is appended to a
+ * sidecar file, with the bytes allocated by the thread validating it (which
+ * doesn't decode or encode when pipelined) and how many collections, taking
+ * how long, each collector ran meanwhile. Cases during which any collection
+ * ran are flagged, since their timings include its pause (or competed with
+ * it, for concurrent collectors).
+ *
+ * Lines are flushed as they're written, as the harness exits without
+ * closing anything once it's told to stop.
+ */
+final class AllocationLog {
+  private final com.sun.management.ThreadMXBean threads;
+  private final List<GarbageCollectorMXBean> collectors =
+      ManagementFactory.getGarbageCollectorMXBeans();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final PrintStream log;
+
+  /**
+   * The counters as they were when a case started.
+   */
+  record Sample(long allocatedBytes, long[] counts, long[] times) {}
+
+  private AllocationLog(PrintStream log) {
+    this.log = log;
+    if (ManagementFactory.getThreadMXBean()
+            instanceof com.sun.management.ThreadMXBean bean &&
+        bean.isThreadAllocatedMemorySupported()) {
+      bean.setThreadAllocatedMemoryEnabled(true);
+      threads = bean;
+    } else {
+      threads = null;
+    }
+  }
+
+  /**
+   * Open a log at the given path, or return null if there isn't one.
+   */
+  static AllocationLog open(String path) {
+    if (path == null || path.isEmpty()) {
+      return null;
+    }
+    try {
+      return new AllocationLog(
+          new PrintStream(Files.newOutputStream(Path.of(path)), false,
+                          StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  Sample begin() {
+    long[] counts = new long[collectors.size()];
+    long[] times = new long[collectors.size()];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = collectors.get(i).getCollectionCount();
+      times[i] = collectors.get(i).getCollectionTime();
+    }
+    return new Sample(allocatedBytes(), counts, times);
+  }
+
+  @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+  void end(JsonNode seq, Sample sample) {
+    long allocated = allocatedBytes();
+    long count = 0;
+    long time = 0;
+    LinkedHashMap<String, CollectorActivity> ran = new LinkedHashMap<>();
+    for (int i = 0; i < sample.counts().length; i++) {
+      GarbageCollectorMXBean collector = collectors.get(i);
+      long collections = collector.getCollectionCount() - sample.counts()[i];
+      if (collections > 0) {
+        long millis = collector.getCollectionTime() - sample.times()[i];
+        ran.put(collector.getName(),
+                new CollectorActivity(collections, millis));
+        count += collections;
+        time += millis;
+      }
+    }
+    try {
+      log.println(objectMapper.writeValueAsString(new CaseAllocations(
+          seq,
+          threads == null || sample.allocatedBytes() < 0
+              ? null
+              : allocated - sample.allocatedBytes(),
+          count, time, count > 0, ran)));
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+    log.flush();
+  }
+
+  private long allocatedBytes() {
+    return threads == null ? -1 : threads.getCurrentThreadAllocatedBytes();
+  }
+
+  /**
+   * The collections one collector ran during a case, and the time they took
+   * in milliseconds.
+   */
+  record CollectorActivity(long count, long time_ms) {}
+
+  record CaseAllocations(JsonNode seq, Long allocated_bytes, long gc_count,
+                         long gc_time_ms, boolean gc_contaminated,
+                         Map<String, CollectorActivity> collectors) {}
+}
@@ -1,4 +1,5 @@
-import com.fasterxml.jackson.annotation.JsonProperty;
+import bowtie.ihop.CommandDecoder;
+import bowtie.ihop.Protocol;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -6,12 +7,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonschema.SchemaVersion;
 import com.github.fge.jsonschema.cfg.ValidationConfiguration;
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
-import com.github.fge.jsonschema.core.load.configuration.LoadingConfiguration;
-import com.github.fge.jsonschema.core.load.configuration.LoadingConfigurationBuilder;
-import com.github.fge.jsonschema.core.report.ProcessingReport;
-import com.github.fge.jsonschema.main.JsonSchemaFactory;
-import com.github.fge.jsonschema.main.JsonValidator;
+import com.github.fge.jsonschema.main.JsonSchema;
 import java.io.*;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.jar.Manifest;
 
@@ -28,46 +26,111 @@ public class BowtieJsonSchemaValidator {
     }
   }
 
+  /**
+   * How many built schemas are kept around across cases before the least
+   * recently used one is evicted.
+   */
+  private static final int SCHEMA_CACHE_SIZE = 256;
+
+  /**
+   * How many factories for distinct registries are kept around before the
+   * least recently used one is evicted.
+   */
+  private static final int FACTORY_CACHE_SIZE = 32;
+
+  private SchemaVersion schemaVersion;
   private ValidationConfiguration validationConfiguration;
+  private final EnumMap<SchemaVersion, ValidationConfiguration>
+      validationConfigurations = new EnumMap<>(SchemaVersion.class);
+
+  /**
+   * Whether schemas are built with reports which discard their messages and
+   * stop at an instance's first error, the harness only needing to know
+   * whether it's valid.
+   */
+  private final boolean discardingReports =
+      Boolean.parseBoolean(System.getenv("BOWTIE_JSON_TOOLS_DISCARD_REPORTS"));
+
+  private final Schemas schemas =
+      new Schemas(SCHEMA_CACHE_SIZE, FACTORY_CACHE_SIZE, discardingReports);
+
+  /**
+   * Schemas built with the library's own reports, to validate again what
+   * failed outright with discarding ones, so that its error reads as before.
+   */
+  private final Schemas reportingSchemas =
+      discardingReports ? new Schemas(1, 1, false) : null;
+
+  private final AllocationLog allocationLog =
+      AllocationLog.open(System.getenv("BOWTIE_JSON_TOOLS_ALLOCATION_LOG"));
 
   private final ObjectMapper objectMapper = new ObjectMapper().configure(
       DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private final CommandDecoder<JsonNode> decoder =
+      CommandDecoder.forTrees(objectMapper);
   private final PrintStream output;
   private boolean started;
+  @SuppressWarnings("PMD.DoNotUseThreads") private Thread warmUp;
 
-  public static void main(String[] args) {
+  public static void main(String[] args) throws InterruptedException {
     BufferedReader reader =
         new BufferedReader(new InputStreamReader(System.in));
-    new BowtieJsonSchemaValidator(System.out).run(reader);
+    BowtieJsonSchemaValidator harness =
+        new BowtieJsonSchemaValidator(System.out);
+    if (Boolean.parseBoolean(System.getenv("BOWTIE_JSON_TOOLS_PIPELINE"))) {
+      Pipeline.run(harness, reader);
+    } else {
+      harness.run(reader);
+    }
   }
 
   public BowtieJsonSchemaValidator(PrintStream output) { this.output = output; }
 
   private void run(BufferedReader reader) {
-    reader.lines().forEach(this::handle);
+    reader.lines().forEach(line -> {
+      Object request = decode(line);
+      if (request instanceof Protocol.StopRequest) {
+        System.exit(0);
+      }
+      write(handle(request));
+    });
+  }
+
+  Object decode(String data) {
+    try {
+      return decoder.read(data);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 
-  private void handle(String data) {
+  Object handle(Object request) {
     try {
-      JsonNode node = objectMapper.readTree(data);
-      String cmd = node.get("cmd").asText();
-      switch (cmd) {
-      case "start" -> start(node);
-      case "dialect" -> dialect(node);
-      case "run" -> run(node);
-      case "stop" -> System.exit(0);
-      default ->
-        throw new IllegalArgumentException("Unknown cmd [%s]".formatted(cmd));
+      if (request instanceof Protocol.StartRequest startRequest) {
+        return start(startRequest);
+      } else if (request instanceof Protocol.DialectRequest dialectRequest) {
+        return dialect(dialectRequest);
       }
+      @SuppressWarnings("unchecked")
+      Protocol.RunRequest<JsonNode> runRequest =
+          (Protocol.RunRequest<JsonNode>)request;
+      return run(runRequest);
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
   }
 
-  private void start(JsonNode node) throws IOException {
+  void write(Object response) {
+    try {
+      output.println(objectMapper.writeValueAsString(response));
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Protocol.StartResponse start(Protocol.StartRequest startRequest)
+      throws IOException {
     started = true;
-    StartRequest startRequest =
-        objectMapper.treeToValue(node, StartRequest.class);
     if (startRequest.version() != 1) {
       throw new IllegalArgumentException(
           "Unsupported IHOP version [%d]".formatted(startRequest.version()));
@@ -76,9 +139,9 @@ public class BowtieJsonSchemaValidator {
     InputStream is = getClass().getResourceAsStream("META-INF/MANIFEST.MF");
     var attributes = new Manifest(is).getMainAttributes();
 
-    StartResponse startResponse = new StartResponse(
+    return new Protocol.StartResponse(
         1,
-        new Implementation(
+        new Protocol.Implementation(
             "java", attributes.getValue("Implementation-Name"),
             attributes.getValue("Implementation-Version"),
             List.of("http://json-schema.org/draft-04/schema#",
@@ -89,75 +152,104 @@ public class BowtieJsonSchemaValidator {
             "https://github.com/java-json-tools/json-schema-validator",
             System.getProperty("os.name"), System.getProperty("os.version"),
             Runtime.version().toString(), List.of()));
-    output.println(objectMapper.writeValueAsString(startResponse));
   }
 
-  private void dialect(JsonNode node) throws JsonProcessingException {
+  private Protocol.DialectResponse
+  dialect(Protocol.DialectRequest dialectRequest) {
     if (!started) {
       throw new IllegalArgumentException("Not started!");
     }
 
-    DialectRequest dialectRequest =
-        objectMapper.treeToValue(node, DialectRequest.class);
+    schemaVersion = getVersionFromDialect(dialectRequest.dialect());
+    validationConfiguration = validationConfigurations.computeIfAbsent(
+        schemaVersion, version
+        -> ValidationConfiguration.newBuilder()
+               .setDefaultVersion(version)
+               .freeze());
+
+    stopWarmUp();
+    if (Boolean.parseBoolean(System.getenv("BOWTIE_JSON_TOOLS_WARMUP"))) {
+      warmUp = WarmUp.start(schemaVersion, validationConfiguration,
+                            discardingReports);
+    }
 
-    SchemaVersion schemaVersion =
-        getVersionFromDialect(dialectRequest.dialect());
-    validationConfiguration = ValidationConfiguration.newBuilder()
-                                  .setDefaultVersion(schemaVersion)
-                                  .freeze();
+    return new Protocol.DialectResponse(true);
+  }
 
-    DialectResponse dialectResponse = new DialectResponse(true);
-    output.println(objectMapper.writeValueAsString(dialectResponse));
+  /**
+   * Stop any warm-up still running, so that it doesn't compete with a real
+   * case (or with the warm-up for a newly selected dialect).
+   */
+  @SuppressWarnings({"PMD.DoNotUseThreads", "PMD.NullAssignment"})
+  private void stopWarmUp() {
+    if (warmUp == null) {
+      return;
+    }
+    warmUp.interrupt();
+    try {
+      warmUp.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    warmUp = null;
   }
 
-  private void run(JsonNode node) throws JsonProcessingException {
+  private Record run(Protocol.RunRequest<JsonNode> runRequest) {
     if (!started) {
       throw new IllegalArgumentException("Not started!");
     }
-    RunRequest runRequest = objectMapper.treeToValue(node, RunRequest.class);
+    stopWarmUp();
+    AllocationLog.Sample sample =
+        allocationLog == null ? null : allocationLog.begin();
     try {
-      final LoadingConfigurationBuilder builder =
-          LoadingConfiguration.newBuilder();
-
-      if (runRequest.testCase().registry() != null) {
-        runRequest.testCase().registry().fields().forEachRemaining(
-            entry -> builder.preloadSchema(entry.getKey(), entry.getValue()));
-      }
-
-      JsonSchemaFactory factory =
-          JsonSchemaFactory.newBuilder()
-              .setLoadingConfiguration(builder.freeze())
-              .setValidationConfiguration(validationConfiguration)
-              .freeze();
-      final JsonValidator validator;
-
-      validator = factory.getValidator();
+      JsonSchema schema = schemas.get(runRequest.testCase(), schemaVersion,
+                                      validationConfiguration);
       List<Record> results =
           runRequest.testCase()
               .tests()
               .stream()
               .map(test -> {
                 try {
-                  ProcessingReport report = validator.validate(
-                      runRequest.testCase().schema(), test.instance());
-                  return new TestResult(report.isSuccess());
+                  return new Protocol.TestResult(
+                      isValid(runRequest, schema, test.instance()));
                 } catch (ProcessingException e) {
                   return new TestErrored(
-                      true,
-                      new ErrorContext(e.getMessage(), stackTraceToString(e)));
+                      true, new Protocol.ErrorContext(e.getMessage(),
+                                                      stackTraceToString(e)));
                 }
               })
               .toList();
-      output.println(objectMapper.writeValueAsString(
-          new RunResponse(runRequest.seq(), results)));
+      return new RunResponse(runRequest.seq(), results);
     } catch (Exception e) {
-      StringWriter stringWriter = new StringWriter();
-      PrintWriter printWriter = new PrintWriter(stringWriter);
-      e.printStackTrace(printWriter);
-      RunErroredResponse response = new RunErroredResponse(
+      return new Protocol.RunErroredResponse<>(
           runRequest.seq(), true,
-          new ErrorContext(e.getMessage(), stackTraceToString(e)));
-      output.println(objectMapper.writeValueAsString(response));
+          new Protocol.ErrorContext(e.getMessage(), stackTraceToString(e)));
+    } finally {
+      if (sample != null) {
+        allocationLog.end(runRequest.seq(), sample);
+      }
+    }
+  }
+
+  /**
+   * Validate an instance. When reports discard their messages, validation
+   * which fails outright is repeated with the library's own reports, so that
+   * the error (e.g. which syntax errors made a schema invalid) reads as
+   * before.
+   */
+  private boolean isValid(Protocol.RunRequest<JsonNode> runRequest,
+                          JsonSchema schema, JsonNode instance)
+      throws ProcessingException {
+    try {
+      return schemas.isValid(schema, instance);
+    } catch (ProcessingException e) {
+      if (reportingSchemas == null) {
+        throw e;
+      }
+      return reportingSchemas
+          .get(runRequest.testCase(), schemaVersion, validationConfiguration)
+          .validate(instance)
+          .isSuccess();
     }
   }
 
@@ -168,40 +260,10 @@ public class BowtieJsonSchemaValidator {
   }
 }
 
-record StartRequest(int version) {}
-
-record StartResponse(int version, Implementation implementation) {}
-
-record DialectRequest(String dialect) {}
-
-record DialectResponse(boolean ok) {}
-
-record RunRequest(JsonNode seq, @JsonProperty("case") TestCase testCase) {}
-
+/**
+ * A run's response, whose results (unlike the protocol's) may include tests
+ * which errored.
+ */
 record RunResponse(JsonNode seq, List<Record> results) {}
 
-record RunSkippedResponse(JsonNode seq, boolean skipped, String message,
-                          String issue_url) {}
-
-record RunErroredResponse(JsonNode seq, boolean errored, ErrorContext context) {
-}
-
-record ErrorContext(String message, String traceback) {}
-
-record
-    Implementation(String language, String name, String version,
-                   List<String> dialects, String homepage, String documentation,
-                   String issues, String source, String os, String os_version,
-                   String language_version, List<Link> links) {}
-
-record Link(String url, String description) {}
-
-record TestCase(String description, String comment, JsonNode schema,
-                JsonNode registry, List<Test> tests) {}
-
-record
-    Test(String description, String comment, JsonNode instance, boolean valid) {
-}
-
-record TestResult(boolean valid) {}
-record TestErrored(boolean errored, ErrorContext context) {}
+record TestErrored(boolean errored, Protocol.ErrorContext context) {}
@@ -0,0 +1,136 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.LogLevel;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.core.report.ReportProvider;
+import com.github.fge.jsonschema.main.JsonSchema;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Provides reports which discard messages instead of collecting them (the
+ * harness never looks at them), and which give up on an instance as soon as
+ * it fails validation anywhere.
+ *
+ * The provider holds no state, so factories built with it can be used from
+ * any thread. Failures which need their messages (an invalid schema, say)
+ * are validated again with a factory of the library's own reports.
+ */
+@SuppressWarnings("PMD.AtLeastOneConstructor")
+final class DiscardingReportProvider implements ReportProvider {
+  /**
+   * Validate an instance against a schema built with any reports, discarding
+   * ones signalling an invalid instance with {@link InstanceFailed}.
+   */
+  static boolean isValid(JsonSchema schema, JsonNode instance)
+      throws ProcessingException {
+    try {
+      return schema.validate(instance).isSuccess();
+    } catch (InstanceFailed e) {
+      return false;
+    }
+  }
+
+  @Override
+  public ProcessingReport newReport() {
+    return new DiscardingReport();
+  }
+
+  @Override
+  public ProcessingReport newReport(LogLevel logLevel) {
+    return new DiscardingReport();
+  }
+
+  @Override
+  public ProcessingReport newReport(LogLevel logLevel,
+                                    LogLevel exceptionThreshold) {
+    return new DiscardingReport();
+  }
+}
+
+/**
+ * A report which only tracks success, and which aborts validation on the
+ * first error it is handed by throwing {@link InstanceFailed}.
+ *
+ * Reports merged into it (which is how the library hands back syntax errors
+ * found in a schema) only mark it as failed, so that invalid schemas still
+ * fail validation outright rather than looking like an invalid instance.
+ * Reports the library creates for subschemas (e.g. for anyOf) are its own,
+ * and only inherit the log level of this one, so they don't keep messages
+ * either.
+ */
+final class DiscardingReport implements ProcessingReport {
+  private boolean success;
+
+  DiscardingReport() { success = true; }
+
+  @Override
+  public LogLevel getLogLevel() {
+    return LogLevel.NONE;
+  }
+
+  @Override
+  public LogLevel getExceptionThreshold() {
+    return LogLevel.FATAL;
+  }
+
+  @Override
+  public void debug(ProcessingMessage message) {
+    // discarded
+  }
+
+  @Override
+  public void info(ProcessingMessage message) {
+    // discarded
+  }
+
+  @Override
+  public void warn(ProcessingMessage message) {
+    // discarded
+  }
+
+  @Override
+  public void error(ProcessingMessage message) throws ProcessingException {
+    success = false;
+    throw InstanceFailed.INSTANCE;
+  }
+
+  @Override
+  public void fatal(ProcessingMessage message) throws ProcessingException {
+    success = false;
+    throw message.asException();
+  }
+
+  @Override
+  public boolean isSuccess() {
+    return success;
+  }
+
+  @Override
+  public void mergeWith(ProcessingReport other) {
+    success &= other.isSuccess();
+  }
+
+  @Override
+  public Iterator<ProcessingMessage> iterator() {
+    return Collections.emptyIterator();
+  }
+}
+
+/**
+ * Signals that an instance failed validation, without the cost of building
+ * a message or capturing a stack trace.
+ */
+final class InstanceFailed extends ProcessingException {
+  private static final long serialVersionUID = 1L;
+
+  static final InstanceFailed INSTANCE = new InstanceFailed();
+
+  private InstanceFailed() { super("instance is invalid"); }
+
+  @Override
+  public Throwable fillInStackTrace() {
+    return this;
+  }
+}
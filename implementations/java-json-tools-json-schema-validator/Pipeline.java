@@ -0,0 +1,112 @@
+import bowtie.ihop.Protocol;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Runs the harness with decoding and encoding moved off of the validating
+ * thread.
+ *
+ * A reader thread decodes commands ahead of time and a writer thread
+ * encodes and flushes responses, both through bounded queues, while
+ * commands themselves are still handled one at a time, in order, on the
+ * calling thread. Decoding failures are rethrown once the failing command
+ * is reached, exactly as they would have been without pipelining.
+ */
+final class Pipeline {
+  /**
+   * How many decoded commands (and encoded responses) may be queued up.
+   */
+  private static final int DEPTH = 16;
+
+  private final BowtieJsonSchemaValidator harness;
+
+  private Pipeline(BowtieJsonSchemaValidator harness) {
+    this.harness = harness;
+  }
+
+  static void run(BowtieJsonSchemaValidator harness, BufferedReader reader)
+      throws InterruptedException {
+    new Pipeline(harness).run(reader);
+  }
+
+  @SuppressWarnings("PMD.DoNotUseThreads")
+  private void run(BufferedReader reader) throws InterruptedException {
+    BlockingQueue<Decoded> requests = new ArrayBlockingQueue<>(DEPTH);
+    BlockingQueue<Object> responses = new ArrayBlockingQueue<>(DEPTH);
+
+    Thread readerThread = new Thread(() -> {
+      try {
+        requests.put(decodeAll(reader, requests));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, "ihop-reader");
+    Thread writerThread = new Thread(() -> {
+      try {
+        for (Object response = responses.take();
+             !(response instanceof Protocol.StopRequest);
+             response = responses.take()) {
+          harness.write(response);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, "ihop-writer");
+    readerThread.setDaemon(true);
+    readerThread.start();
+    writerThread.start();
+
+    try {
+      for (Object request = requests.take().get();
+           !(request instanceof Protocol.StopRequest);
+           request = requests.take().get()) {
+        responses.put(harness.handle(request));
+      }
+    } finally {
+      responses.put(new Protocol.StopRequest());
+      writerThread.join();
+    }
+  }
+
+  /**
+   * Decode each line from the reader onto the queue, returning what should
+   * follow them once there are no more.
+   */
+  private Decoded decodeAll(BufferedReader reader,
+                            BlockingQueue<Decoded> requests)
+      throws InterruptedException {
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        requests.put(decodeAhead(line));
+      }
+      return new Decoded(new Protocol.StopRequest(), null);
+    } catch (IOException e) {
+      return new Decoded(null, new UncheckedIOException(e));
+    }
+  }
+
+  private Decoded decodeAhead(String line) {
+    try {
+      return new Decoded(harness.decode(line), null);
+    } catch (RuntimeException e) {
+      return new Decoded(null, e);
+    }
+  }
+
+  /**
+   * A command decoded ahead of time, or the failure to decode it, which is
+   * only rethrown once the command is reached.
+   */
+  private record Decoded(Object request, RuntimeException failure) {
+    Object get() {
+      if (failure != null) {
+        throw failure;
+      }
+      return request;
+    }
+  }
+}
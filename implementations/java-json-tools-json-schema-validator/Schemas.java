@@ -0,0 +1,138 @@
+import bowtie.ihop.Protocol;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jsonschema.SchemaVersion;
+import com.github.fge.jsonschema.cfg.ValidationConfiguration;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.load.configuration.LoadingConfiguration;
+import com.github.fge.jsonschema.core.load.configuration.LoadingConfigurationBuilder;
+import com.github.fge.jsonschema.core.report.ReportProvider;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import com.github.fge.jsonschema.main.JsonSchemaFactoryBuilder;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The schemas built for cases, and the factories they were built with.
+ *
+ * Building a factory assembles the library's whole processor chain, so
+ * factories are shared: one per dialect for cases without a registry, and
+ * one per distinct registry otherwise. The chain also remembers which of a
+ * built schema's subschemas it has checked the syntax of, so along with the
+ * cache of built schemas, a schema sent again isn't checked again.
+ *
+ * All of an instance's factories get the same kind of reports, so schemas
+ * built with different reports live in different instances and never share
+ * a factory.
+ *
+ * Only the harness's main thread uses these (the warm-up has its own
+ * factory), so the caches aren't synchronized.
+ */
+final class Schemas {
+  private final EnumMap<SchemaVersion, JsonSchemaFactory> defaultFactories =
+      new EnumMap<>(SchemaVersion.class);
+  private final LinkedHashMap<FactoryKey, JsonSchemaFactory> factoryCache;
+  private final LinkedHashMap<SchemaKey, JsonSchema> schemaCache;
+  private final ReportProvider reports;
+
+  /**
+   * Keep up to the given numbers of built schemas and of factories for
+   * distinct registries, evicting the least recently used ones beyond that.
+   * Factories get reports which discard their messages when asked to, and
+   * the library's own otherwise.
+   */
+  Schemas(int schemaCacheSize, int factoryCacheSize,
+          boolean discardingReports) {
+    reports = discardingReports ? new DiscardingReportProvider() : null;
+    factoryCache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean
+      removeEldestEntry(Map.Entry<FactoryKey, JsonSchemaFactory> eldest) {
+        return size() > factoryCacheSize;
+      }
+    };
+    schemaCache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean
+      removeEldestEntry(Map.Entry<SchemaKey, JsonSchema> eldest) {
+        return size() > schemaCacheSize;
+      }
+    };
+  }
+
+  /**
+   * Build the case's schema once, so that loading it and building its
+   * validators isn't repeated for each of its tests (or for later cases
+   * resending the same schema).
+   */
+  JsonSchema get(Protocol.TestCase<JsonNode> testCase, SchemaVersion version,
+                 ValidationConfiguration validationConfiguration)
+      throws ProcessingException {
+    SchemaKey key =
+        new SchemaKey(testCase.schema(), version, testCase.registry());
+    JsonSchema schema = schemaCache.get(key);
+    if (schema == null) {
+      JsonSchemaFactory factory =
+          factoryFor(testCase.registry(), version, validationConfiguration);
+      schema = factory.getJsonSchema(testCase.schema());
+      schemaCache.put(key, schema);
+    }
+    return schema;
+  }
+
+  /**
+   * Validate an instance against one of these schemas.
+   */
+  boolean isValid(JsonSchema schema, JsonNode instance)
+      throws ProcessingException {
+    return DiscardingReportProvider.isValid(schema, instance);
+  }
+
+  private JsonSchemaFactory
+  factoryFor(JsonNode registry, SchemaVersion version,
+             ValidationConfiguration validationConfiguration) {
+    if (registry == null || registry.isEmpty()) {
+      return defaultFactories.computeIfAbsent(
+          version, v
+          -> newFactory(LoadingConfiguration.byDefault(),
+                        validationConfiguration));
+    }
+    return factoryCache.computeIfAbsent(
+        new FactoryKey(registry, validationConfiguration), key -> {
+          final LoadingConfigurationBuilder builder =
+              LoadingConfiguration.newBuilder();
+          registry.fields().forEachRemaining(
+              entry -> builder.preloadSchema(entry.getKey(), entry.getValue()));
+          return newFactory(builder.freeze(), validationConfiguration);
+        });
+  }
+
+  private JsonSchemaFactory
+  newFactory(LoadingConfiguration loadingConfiguration,
+             ValidationConfiguration validationConfiguration) {
+    JsonSchemaFactoryBuilder builder =
+        JsonSchemaFactory.newBuilder()
+            .setLoadingConfiguration(loadingConfiguration)
+            .setValidationConfiguration(validationConfiguration);
+    if (reports != null) {
+      builder.setReportProvider(reports);
+    }
+    return builder.freeze();
+  }
+
+  /**
+   * Identifies a built schema by its contents (JSON nodes hash and compare
+   * structurally), the dialect it was built for and the registry it could
+   * reference.
+   */
+  private record SchemaKey(JsonNode schema, SchemaVersion version,
+                           JsonNode registry) {}
+
+  /**
+   * Identifies a factory by the registry it preloads and the (per-dialect,
+   * reused) validation configuration it was built with.
+   */
+  private record FactoryKey(JsonNode registry,
+                            ValidationConfiguration validationConfiguration) {}
+}
@@ -0,0 +1,151 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonschema.SchemaVersion;
+import com.github.fge.jsonschema.cfg.ValidationConfiguration;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import com.github.fge.jsonschema.main.JsonSchemaFactoryBuilder;
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Exercises a dialect in the background until JIT compilation settles, so
+ * that the first real cases don't pay for class loading and interpreted
+ * execution.
+ *
+ * Each round validates the dialect's metaschema against itself and then runs
+ * a small corpus of representative schemas and instances. Rounds stop once
+ * a few in a row trigger (almost) no further compilation, or as soon as the
+ * thread is interrupted by a real command arriving, which is checked between
+ * each schema of the corpus so that the command isn't kept waiting for the
+ * rest of a round.
+ *
+ * The warm-up validates with a factory of its own, so that nothing it
+ * touches is shared with the thread handling commands but the (immutable)
+ * validation configuration. Its reports are of the same kind as the
+ * harness's, so that it warms up the same code.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+final class WarmUp implements Runnable {
+  private static final int MAX_ROUNDS = 500;
+  private static final int QUIET_ROUNDS = 5;
+  private static final long QUIET_COMPILATION_MILLIS = 2;
+
+  private static final String CORPUS = """
+      [
+        {"schema": {"type": "integer", "minimum": 1, "maximum": 10},
+         "instances": [5, 0, 11, 2.5, "5"]},
+        {"schema": {"type": ["string", "null"], "minLength": 2,
+                    "maxLength": 5, "pattern": "^[a-z]+$"},
+         "instances": ["abc", "a", "abcdefg", "AB", null, 12]},
+        {"schema": {"properties": {"foo": {"type": "string"},
+                                   "bar": {"type": "number"}},
+                    "patternProperties": {"^x-": {"type": "boolean"}},
+                    "additionalProperties": false},
+         "instances": [{"foo": "a", "bar": 1, "x-y": true},
+                       {"foo": 1}, {"baz": null}, []]},
+        {"schema": {"items": {"type": "integer"}, "minItems": 1,
+                    "maxItems": 4, "uniqueItems": true},
+         "instances": [[1, 2, 3], [], [1, 1], [1, "2"], [1, 2, 3, 4, 5]]},
+        {"schema": {"items": [{"type": "string"}, {"type": "number"}],
+                    "additionalItems": false},
+         "instances": [["a", 1], ["a", 1, null], [1, "a"]]},
+        {"schema": {"enum": ["red", "green", 3, null, {"a": [1]}]},
+         "instances": ["red", "blue", 3, {"a": [1]}, {"a": [2]}]},
+        {"schema": {"definitions": {"node": {"type": "object",
+                      "properties": {"next": {"$ref": "#/definitions/node"},
+                                     "value": {"type": "integer"}}}},
+                    "$ref": "#/definitions/node"},
+         "instances": [{"value": 1, "next": {"value": 2, "next": {}}},
+                       {"next": {"value": "2"}}]},
+        {"schema": {"minProperties": 1, "maxProperties": 2,
+                    "dependencies": {"a": ["b"]}},
+         "instances": [{"a": 1, "b": 2}, {"a": 1}, {}, {"b": 1, "c": 2, "d": 3}]}
+      ]
+      """;
+
+  private final SchemaVersion version;
+  private final ValidationConfiguration configuration;
+  private final boolean discardingReports;
+  private JsonSchemaFactory factory;
+  private int rounds;
+
+  private WarmUp(SchemaVersion version, ValidationConfiguration configuration,
+                 boolean discardingReports) {
+    this.version = version;
+    this.configuration = configuration;
+    this.discardingReports = discardingReports;
+  }
+
+  static Thread start(SchemaVersion version,
+                      ValidationConfiguration configuration,
+                      boolean discardingReports) {
+    Thread thread = new Thread(
+        new WarmUp(version, configuration, discardingReports), "warm-up");
+    thread.setDaemon(true);
+    thread.start();
+    return thread;
+  }
+
+  @Override
+  @SuppressWarnings("PMD.SystemPrintln")
+  public void run() {
+    long startedAt = System.nanoTime();
+    JsonSchemaFactoryBuilder builder =
+        JsonSchemaFactory.newBuilder().setValidationConfiguration(
+            configuration);
+    if (discardingReports) {
+      builder.setReportProvider(new DiscardingReportProvider());
+    }
+    factory = builder.freeze();
+    boolean settled;
+    try {
+      settled = warmUp(new ObjectMapper().readTree(CORPUS));
+    } catch (IOException | ProcessingException e) {
+      throw new IllegalStateException("Warm-up failed", e);
+    }
+    System.err.printf("warm-up for %s %s after %d rounds in %d ms%n", version,
+                      settled ? "settled" : "stopped", rounds,
+                      (System.nanoTime() - startedAt) / 1_000_000);
+  }
+
+  /**
+   * Run rounds until compilation settles down (or until interrupted),
+   * returning whether it did settle.
+   */
+  private boolean warmUp(JsonNode corpus) throws ProcessingException {
+    CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+    boolean measurable =
+        jit != null && jit.isCompilationTimeMonitoringSupported();
+    long compiled = measurable ? jit.getTotalCompilationTime() : 0;
+    int quiet = 0;
+    while (rounds < MAX_ROUNDS && quiet < QUIET_ROUNDS &&
+           !Thread.currentThread().isInterrupted()) {
+      round(corpus);
+      rounds++;
+      if (measurable) {
+        long nowCompiled = jit.getTotalCompilationTime();
+        quiet = nowCompiled - compiled <= QUIET_COMPILATION_MILLIS ? quiet + 1
+                                                                   : 0;
+        compiled = nowCompiled;
+      }
+    }
+    return quiet >= QUIET_ROUNDS;
+  }
+
+  private void round(JsonNode corpus) throws ProcessingException {
+    JsonNode metaschema = version.getSchema();
+    factory.getJsonSchema(metaschema).validate(metaschema);
+    for (JsonNode each : corpus) {
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+      JsonSchema schema = factory.getJsonSchema(each.get("schema"));
+      for (JsonNode instance : each.get("instances")) {
+        DiscardingReportProvider.isValid(schema, instance);
+      }
+    }
+  }
+}
@@ -0,0 +1,50 @@
+#!/bin/sh
+# Check that the harness's opt-in modes answer the training session exactly
+# as the harness does without them, and that the background warm-up runs to
+# completion alongside them rather than dying.
+#
+#     ./check-options.sh IMAGE
+#
+# The container runtime is podman unless $CONTAINER_RUNTIME says otherwise.
+set -eu
+
+here=$(dirname "$0")
+image=$1
+runtime=${CONTAINER_RUNTIME:-podman}
+session=$here/training-session.jsonl
+workdir=$(mktemp -d)
+trap 'rm -rf "$workdir"' EXIT
+
+# Give the warm-up a few seconds after the first dialect before any case
+# interrupts it.
+replay() {
+    head -n 2 "$session"
+    sleep 5
+    tail -n +3 "$session"
+}
+
+replay | "$runtime" run --rm --interactive "$image" > "$workdir/plain.jsonl"
+
+for options in \
+    "BOWTIE_JSON_TOOLS_WARMUP=true BOWTIE_JSON_TOOLS_DISCARD_REPORTS=true" \
+    "BOWTIE_JSON_TOOLS_WARMUP=true BOWTIE_JSON_TOOLS_DISCARD_REPORTS=true BOWTIE_JSON_TOOLS_PIPELINE=true"
+do
+    env=""
+    for option in $options; do
+        env="$env --env $option"
+    done
+    # shellcheck disable=SC2086
+    replay | "$runtime" run --rm --interactive $env "$image" \
+        > "$workdir/options.jsonl" 2> "$workdir/stderr"
+    if ! grep -q "^warm-up for " "$workdir/stderr" ||
+        grep -q "Exception" "$workdir/stderr"; then
+        echo "warm-up failed with $options:" >&2
+        cat "$workdir/stderr" >&2
+        exit 1
+    fi
+    if ! cmp -s "$workdir/plain.jsonl" "$workdir/options.jsonl"; then
+        echo "responses differ with $options:" >&2
+        diff "$workdir/plain.jsonl" "$workdir/options.jsonl" >&2
+        exit 1
+    fi
+done
@@ -1,4 +1,5 @@
-import com.fasterxml.jackson.annotation.JsonProperty;
+import bowtie.ihop.CommandDecoder;
+import bowtie.ihop.Protocol;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -14,10 +15,13 @@ import net.jimblackler.jsonschemafriend.SchemaStore;
 import net.jimblackler.jsonschemafriend.ValidationException;
 import net.jimblackler.jsonschemafriend.Validator;
 
-public class BowtieJsonSchemaFriend {
+public class BowtieJsonSchemaFriend
+    implements CommandDecoder.Handler<JsonNode> {
 
   private final ObjectMapper objectMapper = new ObjectMapper().configure(
       DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  private final CommandDecoder<JsonNode> decoder =
+      CommandDecoder.forTrees(objectMapper);
   private final PrintStream output;
 
   public static void main(String[] args) {
@@ -34,24 +38,14 @@ public class BowtieJsonSchemaFriend {
 
   private void handle(String data) {
     try {
-      JsonNode node = objectMapper.readTree(data);
-      String cmd = node.get("cmd").asText();
-      switch (cmd) {
-      case "start" -> start(node);
-      case "dialect" -> dialect(node);
-      case "run" -> run(node);
-      case "stop" -> System.exit(0);
-      default ->
-        throw new IllegalArgumentException("Unknown cmd [%s]".formatted(cmd));
-      }
+      decoder.decode(data, this);
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
   }
 
-  private void start(JsonNode node) throws IOException {
-    StartRequest startRequest =
-        objectMapper.treeToValue(node, StartRequest.class);
+  @Override
+  public void start(Protocol.StartRequest startRequest) throws IOException {
     if (startRequest.version() != 1) {
       throw new IllegalArgumentException(
           "Unsupported IHOP version [%d]".formatted(startRequest.version()));
@@ -60,8 +54,8 @@ public class BowtieJsonSchemaFriend {
     InputStream is = getClass().getResourceAsStream("META-INF/MANIFEST.MF");
     var attributes = new Manifest(is).getMainAttributes();
 
-    StartResponse startResponse = new StartResponse(
-        1, new Implementation(
+    Protocol.StartResponse startResponse = new Protocol.StartResponse(
+        1, new Protocol.Implementation(
                "java", attributes.getValue("Implementation-Name"),
                attributes.getValue("Implementation-Version"),
                List.of("https://json-schema.org/draft/2020-12/schema",
@@ -70,27 +64,31 @@ public class BowtieJsonSchemaFriend {
                        "http://json-schema.org/draft-06/schema#",
                        "http://json-schema.org/draft-04/schema#",
                        "http://json-schema.org/draft-03/schema#"),
-               "https://github.com/jimblackler/jsonschemafriend",
+               "https://github.com/jimblackler/jsonschemafriend", null,
                "https://github.com/jimblackler/jsonschemafriend/issues",
                "https://github.com/jimblackler/jsonschemafriend",
                System.getProperty("os.name"), System.getProperty("os.version"),
                Runtime.version().toString(),
-               List.of(new Link(createMavenUrl("Provider", attributes),
-                                "Maven Central - used JSON provider"))));
+               List.of(new Protocol.Link(
+                   createMavenUrl("Provider", attributes),
+                   "Maven Central - used JSON provider"))));
     output.println(objectMapper.writeValueAsString(startResponse));
   }
 
-  @SuppressWarnings("PMD.UnusedFormalParameter")
-  private void dialect(JsonNode node) throws JsonProcessingException {
+  @Override
+  public void dialect(Protocol.DialectRequest dialectRequest)
+      throws JsonProcessingException {
     // FIXME: This implementation doesn't appear to have a way to
     //        explicitly configure dialect, it seems to always want to
     //        autodetect it, and its test suite works by overriding schemas
     //        that don't contain $schema to then contain it.
-    output.println(objectMapper.writeValueAsString(new DialectResponse(false)));
+    output.println(
+        objectMapper.writeValueAsString(new Protocol.DialectResponse(false)));
   }
 
-  private void run(JsonNode node) throws JsonProcessingException {
-    RunRequest runRequest = objectMapper.treeToValue(node, RunRequest.class);
+  @Override
+  public void run(Protocol.RunRequest<JsonNode> runRequest)
+      throws JsonProcessingException {
 
     Loader registryLoader = new Loader() {
       public String load(URI uri, boolean cacheSchema) throws IOException {
@@ -117,7 +115,7 @@ public class BowtieJsonSchemaFriend {
       Schema schema =
           schemaStore.loadSchemaJson(runRequest.testCase().schema().toString());
 
-      List<TestResult> results =
+      List<Protocol.TestResult> results =
           runRequest.testCase()
               .tests()
               .stream()
@@ -125,24 +123,27 @@ public class BowtieJsonSchemaFriend {
                 try {
                   validator.validateJson(schema, test.instance().toString());
                 } catch (ValidationException e) {
-                  return new TestResult(false);
+                  return new Protocol.TestResult(false);
                 }
-                return new TestResult(true);
+                return new Protocol.TestResult(true);
               })
               .toList();
       output.println(objectMapper.writeValueAsString(
-          new RunResponse(runRequest.seq(), results)));
+          new Protocol.RunResponse<>(runRequest.seq(), results)));
     } catch (Exception e) {
-      StringWriter stringWriter = new StringWriter();
-      PrintWriter printWriter = new PrintWriter(stringWriter);
-      e.printStackTrace(printWriter);
-      RunErroredResponse response = new RunErroredResponse(
-          runRequest.seq(), true,
-          new ErrorContext(e.getMessage(), stackTraceToString(e)));
+      Protocol.RunErroredResponse<JsonNode> response =
+          new Protocol.RunErroredResponse<>(
+              runRequest.seq(), true,
+              new Protocol.ErrorContext(e.getMessage(), stackTraceToString(e)));
       output.println(objectMapper.writeValueAsString(response));
     }
   }
 
+  @Override
+  public void stop(Protocol.StopRequest stopRequest) {
+    System.exit(0);
+  }
+
   private String createMavenUrl(String prefix, Attributes attributes) {
     return "https://mvnrepository.com/artifact/%s/%s/%s".formatted(
         attributes.getValue(prefix + "-Group"),
@@ -156,39 +157,3 @@ public class BowtieJsonSchemaFriend {
     return stringWriter.toString();
   }
 }
-
-record StartRequest(int version) {}
-
-record StartResponse(int version, Implementation implementation) {}
-
-record DialectRequest(String dialect) {}
-
-record DialectResponse(boolean ok) {}
-
-record RunRequest(JsonNode seq, @JsonProperty("case") TestCase testCase) {}
-
-record RunResponse(JsonNode seq, List<TestResult> results) {}
-
-record RunSkippedResponse(JsonNode seq, boolean skipped, String message,
-                          String issue_url) {}
-
-record RunErroredResponse(JsonNode seq, boolean errored, ErrorContext context) {
-}
-
-record ErrorContext(String message, String traceback) {}
-
-record Implementation(String language, String name, String version,
-                      List<String> dialects, String homepage, String issues,
-                      String source, String os, String os_version,
-                      String language_version, List<Link> links) {}
-
-record Link(String url, String description) {}
-
-record TestCase(String description, String comment, JsonNode schema,
-                JsonNode registry, List<Test> tests) {}
-
-record
-    Test(String description, String comment, JsonNode instance, boolean valid) {
-}
-
-record TestResult(boolean valid) {}
@@ -0,0 +1,261 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * The long-lived java process running generated validators.
+ *
+ * Takes the class path of the validators' libraries as its only argument.
+ * Reads one request per line: a class directory, a class name and the
+ * arguments of its main method, separated by tabs. Runs main in a fresh class
+ * loader with standard output captured, and answers "ok" followed by one 0 or
+ * 1 per PASS or FAIL line, or "error" and a message.
+ *
+ * Generated validators may end main with System.exit, which must not end this
+ * process. Every class loaded from the libraries or a validator directory has
+ * its calls to System.exit redirected to {@link SystemExit#exit(int)}, which
+ * throws instead. Other ways out (Runtime.exit, Runtime.halt, a reflective
+ * System.exit) still end the process, which the harness then restarts.
+ */
+public class BowtieRunner {
+  private static final String SYSTEM = "java/lang/System";
+  private static final String EXIT = "exit";
+  private static final String EXIT_DESCRIPTOR = "(I)V";
+  private static final String REDIRECT =
+      SystemExit.class.getName().replace('.', '/');
+
+  /**
+   * What a redirected call to System.exit throws.
+   */
+  public static final class SystemExit extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    private final int status;
+
+    private SystemExit(int status) {
+      super("exit " + status);
+      this.status = status;
+    }
+
+    /**
+     * Stands in for System.exit in loaded classes (so it must be public).
+     */
+    public static void exit(int status) {
+      throw new SystemExit(status);
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    PrintStream protocol = System.out;
+    BufferedReader requests = new BufferedReader(
+        new InputStreamReader(System.in, StandardCharsets.UTF_8));
+    // the libraries are loaded once, and shared by every validator
+    ExitPatchingLoader libraries =
+        new ExitPatchingLoader(urls(args[0].split(File.pathSeparator)),
+                               ClassLoader.getSystemClassLoader());
+    for (String line = requests.readLine(); line != null;
+         line = requests.readLine()) {
+      String[] fields = line.split("\t", -1);
+      try {
+        protocol.println("ok " +
+                         run(libraries, Path.of(fields[0]), fields[1],
+                             Arrays.copyOfRange(fields, 2, fields.length)));
+      } catch (Exception | LinkageError | StackOverflowError e) {
+        protocol.println("error " + e.toString().replace('\n', ' '));
+      }
+    }
+  }
+
+  private static URL[] urls(String... entries) throws IOException {
+    URL[] urls = new URL[entries.length];
+    for (int i = 0; i < entries.length; i++) {
+      urls[i] = Path.of(entries[i]).toUri().toURL();
+    }
+    return urls;
+  }
+
+  private static String run(ClassLoader libraries, Path directory,
+                            String name, String... args) throws Exception {
+    ByteArrayOutputStream captured = new ByteArrayOutputStream();
+    PrintStream stdout = System.out;
+    // a fresh loader per case, closed afterwards, so that its classes can be
+    // unloaded
+    try (URLClassLoader loader =
+             new ExitPatchingLoader(urls(directory.toString()), libraries)) {
+      System.setOut(new PrintStream(captured, true, StandardCharsets.UTF_8));
+      Class.forName(name, true, loader)
+          .getMethod("main", String[].class)
+          .invoke(null, (Object)args);
+    } catch (InvocationTargetException e) {
+      if (!(e.getCause() instanceof SystemExit exit)) {
+        throw e;
+      }
+      if (exit.status != 0) {
+        throw new IllegalStateException("validator exited with status " +
+                                        exit.status, e);
+      }
+    } finally {
+      System.setOut(stdout);
+    }
+    return results(captured.toString(StandardCharsets.UTF_8));
+  }
+
+  private static String results(String output) {
+    StringBuilder results = new StringBuilder();
+    for (String out : output.split("\n")) {
+      if (out.contains("PASS") || out.contains("FAIL")) {
+        results.append(out.contains("FAIL") ? '0' : '1');
+      }
+    }
+    return results.toString();
+  }
+
+  /**
+   * Loads classes from its own URLs (those of its parent first, as usual),
+   * with their calls to System.exit redirected.
+   *
+   * Only direct calls to System.exit(int) are redirected, which is how the
+   * generated validators exit. Calls to Runtime.exit or Runtime.halt, or to
+   * System.exit through reflection or a method handle, still end the runner:
+   * that case errors, and the harness starts a new runner for the next one.
+   */
+  private static final class ExitPatchingLoader extends URLClassLoader {
+    static {
+      registerAsParallelCapable();
+    }
+
+    ExitPatchingLoader(URL[] urls, ClassLoader parent) {
+      super(urls, parent);
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      URL resource = findResource(name.replace('.', '/') + ".class");
+      if (resource == null) {
+        throw new ClassNotFoundException(name);
+      }
+      byte[] bytes;
+      try (InputStream in = resource.openStream()) {
+        bytes = redirectExit(in.readAllBytes());
+      } catch (IOException e) {
+        throw new ClassNotFoundException(name, e);
+      }
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+  }
+
+  /**
+   * Points the class file's method reference to System.exit(int), if any, at
+   * SystemExit instead, by appending a class entry to its constant pool (the
+   * indices of existing entries, and so the code, stay as they are).
+   */
+  private static byte[] redirectExit(byte[] classFile) throws IOException {
+    ConstantPool pool = new ConstantPool(classFile);
+    int exit = pool.exitReference();
+    if (exit == 0) {
+      return classFile;
+    }
+    int count = pool.utf8.length;
+    ByteArrayOutputStream patched = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(patched);
+    out.write(classFile, 0, 8);
+    out.writeShort(count + 2);
+    out.write(classFile, 10, pool.end - 10);
+    out.writeByte(ConstantPool.UTF8);
+    out.writeUTF(REDIRECT);
+    out.writeByte(ConstantPool.CLASS);
+    out.writeShort(count);
+    out.write(classFile, pool.end, classFile.length - pool.end);
+    byte[] bytes = patched.toByteArray();
+    // the method reference's class index follows its tag
+    bytes[exit + 1] = (byte)((count + 1) >> 8);
+    bytes[exit + 2] = (byte)(count + 1);
+    return bytes;
+  }
+
+  /**
+   * As much of a class file's constant pool as it takes to find its method
+   * reference to System.exit(int).
+   */
+  private static final class ConstantPool {
+    static final int UTF8 = 1;
+    static final int CLASS = 7;
+    private static final int METHOD_REF = 10;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    // the size of each kind of entry after its tag, by tag (0 if unknown)
+    private static final int[] SIZES = {0, 0, 0, 4, 4, 8, 8, 2, 2, 4, 4,
+                                        4, 4, 0, 0, 3, 2, 4, 4, 2, 2};
+
+    final String[] utf8;
+    final int[] classNames;
+    final int[][] references;
+    final int[] offsets;
+    // the offset of what follows the constant pool
+    final int end;
+
+    ConstantPool(byte[] classFile) throws IOException {
+      DataInputStream in =
+          new DataInputStream(new ByteArrayInputStream(classFile));
+      in.skipNBytes(8); // magic, minor and major version
+      int count = in.readUnsignedShort();
+      utf8 = new String[count];
+      classNames = new int[count];
+      references = new int[count][];
+      offsets = new int[count];
+      int i = 1;
+      while (i < count) {
+        offsets[i] = classFile.length - in.available();
+        int tag = in.readUnsignedByte();
+        read(in, tag, i);
+        i += tag == LONG || tag == DOUBLE ? 2 : 1;
+      }
+      end = classFile.length - in.available();
+    }
+
+    private void read(DataInputStream in, int tag, int i) throws IOException {
+      if (tag == UTF8) {
+        utf8[i] = in.readUTF();
+      } else if (tag == CLASS) {
+        classNames[i] = in.readUnsignedShort();
+      } else if (tag == METHOD_REF || tag == NAME_AND_TYPE) {
+        references[i] =
+            new int[] {in.readUnsignedShort(), in.readUnsignedShort()};
+      } else if (tag < SIZES.length && SIZES[tag] > 0) {
+        in.skipNBytes(SIZES[tag]);
+      } else {
+        throw new IOException("unknown constant pool tag " + tag);
+      }
+    }
+
+    /**
+     * The offset of the method reference to System.exit(int), or 0.
+     */
+    int exitReference() {
+      for (int i = 1; i < references.length; i++) {
+        int[] method = references[i];
+        // a name and type's first index is a name's, not a class's
+        if (method != null && classNames[method[0]] != 0 &&
+            SYSTEM.equals(utf8[classNames[method[0]]]) &&
+            EXIT.equals(utf8[references[method[1]][0]]) &&
+            EXIT_DESCRIPTOR.equals(utf8[references[method[1]][1]])) {
+          return offsets[i];
+        }
+      }
+      return 0;
+    }
+  }
+}
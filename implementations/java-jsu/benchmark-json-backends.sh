@@ -0,0 +1,22 @@
+#!/bin/sh
+# Compare the JSON libraries generated Java validators can walk, on the
+# keyword benchmarks and on the OpenAPI specification schema benchmark.
+# Builds the image once, then one image per library deriving from it which
+# only sets BOWTIE_JSU_JAVA_JSON (bowtie cannot pass environment variables to
+# a harness itself), and writes bowtie perf JSON reports to the current
+# directory. Set BACKENDS to compare a different set of libraries.
+set -eu
+
+here=$(dirname "$0")
+benchmarks=$here/../../bowtie/benchmarks
+
+docker build --quiet -t localhost/java-jsu "$here" > /dev/null
+for json in ${BACKENDS:-GSON JACKSON JOHNZON}; do
+    image=localhost/java-jsu-$(echo "$json" | tr '[:upper:]' '[:lower:]')
+    printf 'FROM localhost/java-jsu\nENV BOWTIE_JSU_JAVA_JSON=%s\n' "$json" |
+        docker build --quiet -t "$image" - > /dev/null
+    bowtie perf -i "$image" --keywords --format json \
+        > "java-jsu-$json-keywords.json"
+    bowtie perf -i "$image" -b "$benchmarks/openapi_spec_schema.json" \
+        --format json > "java-jsu-$json-openapi.json"
+done
@@ -11,9 +11,14 @@ then the generated validator script or executable to validate each test.
 from pathlib import Path
 import hashlib
 import json
+import os
 import platform
+import re
+import shutil
 import subprocess
 import sys
+import tempfile
+import time
 import traceback
 
 from jsonschema_specifications import REGISTRY
@@ -50,6 +55,12 @@ TMP: Path = Path(__file__).parent / "work"
 # environment variables
 ENV: Path = Path(__file__).parent / ".env"
 
+# JSON libraries generated java validators can walk
+JSON_BACKENDS: set[str] = {"GSON", "JACKSON", "JOHNZON"}
+
+# classes of the long-lived java process, compiled from BowtieRunner.java
+RUNNER: Path = Path(__file__).parent / "runner"
+
 
 def get_version(cmd: list[str]) -> str:
     """Run external command and return first non empty output line."""
@@ -70,6 +81,71 @@ class RunnerError(Exception):
     pass
 
 
+class JavaRunner:
+    """
+    A long-lived JVM which runs the generated java validators.
+
+    Each validator class is loaded into its own class loader, which is closed
+    and dropped once its tests have run, so that metaspace stays bounded, and
+    the JVM start-up cost is paid once instead of once per case.
+    """
+
+    def __init__(self):
+        self.directory: Path = RUNNER
+        self.process: subprocess.Popen | None = None
+
+    def start(self) -> subprocess.Popen:
+        """
+        Start the JVM, with the libraries of generated validators (without
+        the work directory) as its argument: the runner loads them itself.
+        """
+        work = str(TMP.resolve())
+        classpath = [
+            entry
+            for entry in os.environ.get("CLASSPATH", "").split(os.pathsep)
+            if entry and str(Path(entry).resolve()) != work
+        ]
+        return subprocess.Popen(  # noqa: S603
+            [  # noqa: S607
+                "java",
+                "-cp",
+                str(self.directory),
+                "BowtieRunner",
+                os.pathsep.join(classpath),
+            ],
+            stdin=subprocess.PIPE,
+            stdout=subprocess.PIPE,
+            text=True,
+        )
+
+    def run(self, directory: Path, name: str, args: list[str]) -> list[bool]:
+        """Run main of a generated class, return its PASS/FAIL results."""
+        if self.process is None or self.process.poll() is not None:
+            self.stop()
+            self.process = self.start()
+        assert self.process.stdin and self.process.stdout
+        request = "\t".join([str(directory), name, *args])
+        self.process.stdin.write(request + "\n")
+        self.process.stdin.flush()
+        answer = self.process.stdout.readline().rstrip("\n")
+        status, _, results = answer.partition(" ")
+        match status:
+            case "ok":
+                return [r == "1" for r in results]
+            case "error":
+                raise RunnerError(f"java runner: {results}")
+            case _:
+                self.stop()
+                raise RunnerError(f"java runner stopped: {answer!r}")
+
+    def stop(self):
+        """Stop the JVM, if any, so that a new one can replace it."""
+        if self.process is not None:
+            self.process.kill()
+            self.process.communicate()
+            self.process = None
+
+
 class Runner:
     def __init__(self, language: str = "python", options: list[str] = []):
 
@@ -91,6 +167,12 @@ class Runner:
         # how to execute the generated file
         self.runner: list[str]
 
+        # long-lived JVM for java, if used
+        self.jvm: JavaRunner | None = None
+
+        # JSON library walked by generated java validators
+        self.json_backend: str | None = None
+
         # command to get the language version
         vers_cmd: list[str]
 
@@ -110,8 +192,18 @@ class Runner:
                 vers_cmd = ["node", "--version"]
             case "java":  # requires CLASSPATH
                 self.output = TMP / "schema.class"
-                self.runner = ["java", "schema", "-j", "GSON"]
+                self.json_backend = os.environ.get(
+                    "BOWTIE_JSU_JAVA_JSON", "GSON"
+                ).upper()
+                if self.json_backend not in JSON_BACKENDS:
+                    raise RunnerError(
+                        f"unexpected BOWTIE_JSU_JAVA_JSON: {self.json_backend}"
+                    )
+                self.runner = ["java", "schema", "-j", self.json_backend]
                 vers_cmd = ["java", "--version"]
+                # set BOWTIE_JSU_JAVA_RUNNER=process for one JVM per case
+                if os.environ.get("BOWTIE_JSU_JAVA_RUNNER") != "process":
+                    self.jvm = JavaRunner()
             case "perl":  # requires PERLLIB
                 self.output = TMP / "schema.pl"
                 self.runner = ["perl", str(self.output)]
@@ -125,6 +217,8 @@ class Runner:
                 raise RunnerError(f"unexpected language: {language}")
 
         self.language_version = get_version(vers_cmd)
+        if self.json_backend:  # report it where the start response allows
+            self.language_version += f" ({self.json_backend} JSON)"
 
         # compiler call prefix missing version, output file and input schema
         self.subprocess = False
@@ -144,8 +238,31 @@ class Runner:
         # TODO do not necessarily use subprocess?
         self.jsu_version = get_version(["jsu-compile", "--version"])
 
+        # compiler options which shape the generated code, that is all of them
+        # but where the compiler caches schemas
+        cache = self.jsu_compile.index("--cache")
+        self.compiler_options: list[str] = [
+            *self.jsu_compile[1:cache],
+            *self.jsu_compile[cache + 2 :],
+        ]
+
         TMP.mkdir(exist_ok=True)
 
+        # content-addressed store of generated java classes, which survives
+        # restarts if BOWTIE_JSU_VALIDATOR_CACHE points to a mounted volume,
+        # with one directory per compiler version
+        self.validators: Path | None = None
+        self.hits: int = 0
+        self.misses: int = 0
+        self.compiling: float = 0.0  # seconds spent compiling on misses
+        if self.language == "java":
+            compiler = f"{self.language}-{self.jsu_version}"
+            self.validators = Path(
+                os.environ.get("BOWTIE_JSU_VALIDATOR_CACHE")
+                or CACHE / "validators"
+            ) / re.sub(r"[^\w.-]", "_", compiler)
+            self.validators.mkdir(parents=True, exist_ok=True)
+
         # write spec files once
         CACHE.mkdir(exist_ok=True)
         self.spec_files: set[str] = self.cache_schemas(SPECS)
@@ -163,11 +280,52 @@ class Runner:
             if status:
                 raise RunnerError(f"jsu_compile failed: {status}")
 
-    def compile_schema(self, schema: JsonObject) -> Path:
+    def validator_key(self, schema: Json, registry: Json) -> str:
+        """
+        Hash the dialect, the compiler options and the canonical schema, along
+        with the registry its references resolve against.
+        """
+        canonical = json.dumps(
+            [self.version or 7, self.compiler_options, schema, registry],
+            sort_keys=True,
+            separators=(",", ":"),
+        )
+        return hashlib.sha256(canonical.encode()).hexdigest()
+
+    def cached_schema(self, schema: JsonObject, registry: Json) -> Path:
+        """Compile a schema unless the same validator was compiled before."""
+        assert self.validators is not None
+
+        directory = self.validators / self.validator_key(schema, registry)
+        output_file = directory / self.output.name
+        if output_file.exists():
+            self.hits += 1
+            return output_file
+
+        self.misses += 1
+        # compile aside and rename, so that a concurrent harness sharing the
+        # cache never sees a partial directory
+        building = Path(tempfile.mkdtemp(prefix=".", dir=self.validators))
+        start = time.perf_counter()
+        try:
+            self.compile_schema(schema, building / self.output.name)
+            building.rename(directory)
+        except OSError:
+            if not output_file.exists():
+                raise
+        finally:
+            self.compiling += time.perf_counter() - start
+            shutil.rmtree(building, ignore_errors=True)
+
+        return output_file
+
+    def compile_schema(
+        self, schema: JsonObject, output_file: Path | None = None
+    ) -> Path:
         """Compile a schema for the current language."""
 
         schema_file = json_file("schema.json", schema)
-        output_file = TMP / self.output
+        output_file = output_file or TMP / self.output
 
         jsu_compile = [
             *self.jsu_compile,
@@ -182,17 +340,36 @@ class Runner:
 
         return output_file
 
-    def run_tests(self, tests: list[Json]) -> list[bool]:
+    def run_tests(self, output: Path, tests: list[Json]) -> list[bool]:
         """Run several tests at once using the generated validator."""
         test_files: list[Path] = [
             json_file(f"test_{i:02}.json", j) for i, j in enumerate(tests)
         ]
 
+        if self.jvm:
+            test_results = self.jvm.run(
+                output.parent,
+                output.stem,
+                [*self.runner[2:], *[str(f) for f in test_files]],
+            )
+            if len(test_results) != len(test_files):
+                raise RunnerError(f"unexpected runner output: {test_results}")
+            return test_results
+
+        env = None
+        if self.language == "java":  # cached classes come first
+            classpath = os.environ.get("CLASSPATH", "")
+            env = {
+                **os.environ,
+                "CLASSPATH": os.pathsep.join([str(output.parent), classpath]),
+            }
+
         ps = subprocess.run(  # noqa: S603
             [*self.runner, *[str(f) for f in test_files]],
             text=True,
             capture_output=True,
             check=True,
+            env=env,
         )
 
         test_results = [
@@ -281,13 +458,16 @@ class Runner:
             if registry := case.get("registry"):
                 reg_files = self.cache_schemas(registry)
 
-            # generate validator
-            self.compile_schema(jschema)
+            # generate validator, or find it in the cache
+            if self.validators:
+                output = self.cached_schema(jschema, registry)
+            else:
+                output = self.compile_schema(jschema)
 
             # apply to test vector
+            instances = [t["instance"] for t in tests]
             results = [
-                {"valid": res}
-                for res in self.run_tests([t["instance"] for t in tests])
+                {"valid": res} for res in self.run_tests(output, instances)
             ]
 
             assert len(results) == len(tests), "one result per test"
@@ -311,6 +491,14 @@ class Runner:
 
     def cmd_stop(self, req: JsonObject) -> JsonObject:
         """Stop all processing."""
+        if lookups := self.hits + self.misses:
+            sys.stderr.write(
+                f"validator cache: {self.hits} hits, {self.misses} misses"
+                f" ({100 * self.hits / lookups:.1f}% hit rate),"
+                f" {self.compiling:.1f}s compiling the misses"
+                f" ({self.compiling / max(self.misses, 1):.3f}s each)\n"
+            )
+            sys.stderr.flush()
         sys.exit(0)
 
     def process(self, req: JsonObject) -> JsonObject:
@@ -43,16 +43,21 @@ public class BowtieJsonSchemaValidator {
           .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
           .disable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
           .build();
-  private final PrintStream output;
+  private final ResponseWriter output;
   private boolean started;
 
+  // responses go straight to standard output's descriptor, unbuffered
+  @SuppressWarnings("PMD.AvoidFileStream")
   public static void main(String[] args) {
     BufferedReader reader =
         new BufferedReader(new InputStreamReader(System.in));
-    new BowtieJsonSchemaValidator(System.out).run(reader);
+    new BowtieJsonSchemaValidator(new FileOutputStream(FileDescriptor.out))
+        .run(reader);
   }
 
-  public BowtieJsonSchemaValidator(PrintStream output) { this.output = output; }
+  public BowtieJsonSchemaValidator(OutputStream output) {
+    this.output = new ResponseWriter(output, objectMapper);
+  }
 
   private void run(BufferedReader reader) {
     reader.lines().forEach(this::handle);
@@ -102,7 +107,7 @@ public class BowtieJsonSchemaValidator {
                "https://github.com/networknt/json-schema-validator/",
                System.getProperty("os.name"), System.getProperty("os.version"),
                Runtime.version().toString(), List.of()));
-    output.println(objectMapper.writeValueAsString(startResponse));
+    output.write(startResponse);
   }
 
   private void dialect(JsonNode node) {
@@ -115,7 +120,7 @@ public class BowtieJsonSchemaValidator {
 
     versionFlag = getVersionFromDialect(dialectRequest.dialect());
     DialectResponse dialectResponse = new DialectResponse(true);
-    output.println(objectMapper.writeValueAsString(dialectResponse));
+    output.write(dialectResponse);
   }
 
   private void run(JsonNode node) {
@@ -153,8 +158,7 @@ public class BowtieJsonSchemaValidator {
                 return new TestResult(isValid);
               })
               .toList();
-      output.println(objectMapper.writeValueAsString(
-          new RunResponse(runRequest.seq(), results)));
+      output.run(runRequest.seq(), results);
     } catch (Exception e) {
       StringWriter stringWriter = new StringWriter();
       PrintWriter printWriter = new PrintWriter(stringWriter);
@@ -162,7 +166,7 @@ public class BowtieJsonSchemaValidator {
       RunErroredResponse response = new RunErroredResponse(
           runRequest.seq(), true,
           new ErrorContext(e.getMessage(), stackTraceToString(e)));
-      output.println(objectMapper.writeValueAsString(response));
+      output.write(response);
     }
   }
 
@@ -203,6 +207,91 @@ public class BowtieJsonSchemaValidator {
   }
 }
 
+/**
+ * Encodes responses as UTF-8 into one reused buffer and hands each to the
+ * output in a single write, rather than going through a String and a
+ * PrintStream per response.
+ *
+ * <p>Run responses, by far the most frequent, are assembled from
+ * pre-encoded fragments, with an integral seq written digit by digit from
+ * the request's node. Anything else, including a seq which is missing or
+ * not an integer, goes through the mapper.
+ *
+ * <p>The output is expected to be unbuffered (e.g. standard output's file
+ * descriptor itself), as each response is already written whole.
+ */
+final class ResponseWriter {
+  private static final byte[] RUN_START = ascii("{\"seq\":");
+  private static final byte[] RESULTS_START = ascii(",\"results\":[");
+  private static final byte[] VALID = ascii("{\"valid\":true}");
+  private static final byte[] INVALID = ascii("{\"valid\":false}");
+  private static final byte[] RUN_END = ascii("]}\n");
+
+  private final OutputStream output;
+  private final ObjectMapper objectMapper;
+  private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+  private final byte[] digits = new byte[20];
+
+  ResponseWriter(OutputStream output, ObjectMapper objectMapper) {
+    this.output = output;
+    this.objectMapper = objectMapper;
+  }
+
+  void write(Object response) {
+    buffer.reset();
+    objectMapper.writeValue(buffer, response);
+    buffer.write('\n');
+    send();
+  }
+
+  void run(JsonNode seq, List<TestResult> results) {
+    buffer.reset();
+    buffer.writeBytes(RUN_START);
+    if (seq != null && seq.isIntegralNumber() && seq.canConvertToLong()) {
+      writeLong(seq.longValue());
+    } else {
+      objectMapper.writeValue(buffer, seq);
+    }
+    buffer.writeBytes(RESULTS_START);
+    for (int i = 0; i < results.size(); i++) {
+      if (i > 0) {
+        buffer.write(',');
+      }
+      buffer.writeBytes(results.get(i).valid() ? VALID : INVALID);
+    }
+    buffer.writeBytes(RUN_END);
+    send();
+  }
+
+  private void writeLong(long value) {
+    int at = digits.length;
+    long rest = value;
+    do {
+      at--;
+      digits[at] = (byte)('0' + Math.abs(rest % 10));
+      rest /= 10;
+    } while (rest != 0);
+    if (value < 0) {
+      at--;
+      digits[at] = '-';
+    }
+    buffer.write(digits, at, digits.length - at);
+  }
+
+  private void send() {
+    try {
+      buffer.writeTo(output);
+      output.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static byte[] ascii(String fragment) {
+    return fragment.getBytes(StandardCharsets.US_ASCII);
+  }
+}
+
 record StartRequest(int version) {}
 
 record StartResponse(int version, Implementation implementation) {}
@@ -213,8 +302,6 @@ record DialectResponse(boolean ok) {}
 
 record RunRequest(JsonNode seq, @JsonProperty("case") TestCase testCase) {}
 
-record RunResponse(JsonNode seq, List<TestResult> results) {}
-
 record RunSkippedResponse(JsonNode seq, boolean skipped, String message,
                           String issue_url) {}
 
@@ -0,0 +1,120 @@
+import io.openapiprocessor.jsonschema.schema.SchemaVersion
+import java.io.Writer
+import java.util.Locale
+import java.util.concurrent.atomic.AtomicLongArray
+import java.util.concurrent.atomic.LongAdder
+
+enum class Phase {
+    DECODE,
+    COMPILE,
+    VALIDATE,
+    ENCODE,
+}
+
+/**
+ * Always-on request counters and per dialect and phase latency histograms. Recording is a
+ * couple of atomic increments into preallocated slots, so it stays far below the cost of the
+ * work it measures; [write] renders a snapshot in the Prometheus text format.
+ */
+class Metrics {
+    private val commands = HashMap<String, LongAdder>()
+    private val errored = Array(SchemaVersion.entries.size) { LongAdder() }
+    private val phases = Array(SchemaVersion.entries.size) { Array(Phase.entries.size) { Histogram() } }
+
+    init {
+        COMMANDS.forEach { commands[it] = LongAdder() }
+    }
+
+    fun command(cmd: String) {
+        (commands[cmd] ?: commands.getValue(OTHER)).increment()
+    }
+
+    fun errored(version: SchemaVersion) {
+        errored[version.ordinal].increment()
+    }
+
+    fun record(version: SchemaVersion, phase: Phase, nanos: Long) {
+        phases[version.ordinal][phase.ordinal].record(nanos)
+    }
+
+    fun write(out: Writer) {
+        out.write("# HELP bowtie_commands_total Commands received, by command.\n")
+        out.write("# TYPE bowtie_commands_total counter\n")
+        COMMANDS.forEach {
+            out.write("bowtie_commands_total{cmd=\"$it\"} ${commands.getValue(it).sum()}\n")
+        }
+
+        out.write("# HELP bowtie_errored_total Errored responses, by dialect.\n")
+        out.write("# TYPE bowtie_errored_total counter\n")
+        SchemaVersion.entries.forEach {
+            out.write("bowtie_errored_total{dialect=\"${it.name}\"} ${errored[it.ordinal].sum()}\n")
+        }
+
+        out.write("# HELP bowtie_phase_seconds Time spent in each phase of a command, by dialect.\n")
+        out.write("# TYPE bowtie_phase_seconds histogram\n")
+        SchemaVersion.entries.forEach { version ->
+            Phase.entries.forEach { phase ->
+                val labels = "dialect=\"${version.name}\",phase=\"${phase.name.lowercase(Locale.ROOT)}\""
+                phases[version.ordinal][phase.ordinal].write(out, "bowtie_phase_seconds", labels)
+            }
+        }
+        out.flush()
+    }
+
+    private companion object {
+        const val OTHER = "other"
+        val COMMANDS = listOf("start", "dialect", "run", "stop", OTHER)
+    }
+}
+
+/**
+ * A histogram with fixed bucket bounds from 10 microseconds to 10 seconds.
+ */
+class Histogram {
+    private val buckets = AtomicLongArray(BOUNDS.size + 1)
+    private val sum = LongAdder()
+
+    fun record(nanos: Long) {
+        var bucket = 0
+        while (bucket < BOUNDS.size && nanos > BOUNDS[bucket]) {
+            bucket++
+        }
+        buckets.incrementAndGet(bucket)
+        sum.add(nanos)
+    }
+
+    fun write(out: Writer, name: String, labels: String) {
+        var count = 0L
+        for (bucket in BOUNDS.indices) {
+            count += buckets.get(bucket)
+            out.write("${name}_bucket{$labels,le=\"${seconds(BOUNDS[bucket])}\"} $count\n")
+        }
+        count += buckets.get(BOUNDS.size)
+        out.write("${name}_bucket{$labels,le=\"+Inf\"} $count\n")
+        out.write("${name}_sum{$labels} ${seconds(sum.sum())}\n")
+        out.write("${name}_count{$labels} $count\n")
+    }
+
+    private fun seconds(nanos: Long): String {
+        return (nanos / NANOS_PER_SECOND).toString()
+    }
+
+    private companion object {
+        const val NANOS_PER_SECOND = 1e9
+        val BOUNDS = longArrayOf(
+            10_000,
+            50_000,
+            100_000,
+            500_000,
+            1_000_000,
+            5_000_000,
+            10_000_000,
+            50_000_000,
+            100_000_000,
+            500_000_000,
+            1_000_000_000,
+            5_000_000_000,
+            10_000_000_000,
+        )
+    }
+}
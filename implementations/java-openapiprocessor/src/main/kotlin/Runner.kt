@@ -1,19 +1,28 @@
+import com.fasterxml.jackson.core.JacksonException
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectReader
+import com.fasterxml.jackson.databind.ObjectWriter
 import com.fasterxml.jackson.databind.json.JsonMapper
 import com.fasterxml.jackson.module.kotlin.jsonMapper
 import com.fasterxml.jackson.module.kotlin.kotlinModule
-import com.fasterxml.jackson.module.kotlin.readValue
 import commands.Configuration
 import commands.Dialect
+import commands.DialectResponse
 import commands.DialectRequest
-import commands.Request
+import commands.ErrorContext
+import commands.ErroredResponse
+import commands.Response
 import commands.RunCmd
 import commands.RunRequest
 import commands.StartCmd
 import commands.StartRequest
 import commands.StopCmd
-import commands.StopRequest
 import java.io.BufferedReader
 import java.io.BufferedWriter
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.atomic.AtomicBoolean
 import java.util.stream.Stream
 
 @Suppress("TooManyFunctions")
@@ -25,34 +34,100 @@ class Runner(
     private val mapper = createMapper()
     private val config = Configuration()
 
+    private val startReader = readerFor(StartRequest::class.java)
+    private val dialectReader = readerFor(DialectRequest::class.java)
+    private val writers = HashMap<Class<*>, ObjectWriter>()
+
+    private val metrics = config.metrics
+    private val snapshot: String? = System.getenv("BOWTIE_OPENAPIPROCESSOR_METRICS")
+    private val snapshotWritten = AtomicBoolean()
+
+    init {
+        if (snapshot != null) {
+            Runtime.getRuntime().addShutdownHook(Thread { writeSnapshot() })
+        }
+    }
+
     @Suppress("TooGenericExceptionCaught")
     fun run() {
         commands().forEach {
             try {
-                val request = readRequest(it)
+                val start = System.nanoTime()
+                val request = mapper.readTree(it)
+                metrics.record(config.version, Phase.DECODE, System.nanoTime() - start)
                 handleRequest(request)
             } catch (ex: Exception) {
-                writeError(ex)
+                writeFailure(it, ex)
+            } catch (ex: StackOverflowError) {
+                writeFailure(it, ex)
             }
         }
     }
 
-    private fun handleRequest(request: Request) {
-        when (request) {
-            is StartRequest -> {
-                writeResponse(StartCmd().run(request))
+    /**
+     * Answers a request that failed outside of a command's own error handling, so the harness keeps
+     * reading instead of going silent. A failed dialect request is answered as not ok. Any other
+     * request gets an errored response when its `seq` can still be found, in the request or in the
+     * raw line when the line no longer decodes, and is only reported on stderr when it can't. A
+     * failed start or stop request is rethrown, since there is no session to carry on with. A
+     * response that cannot be written is only reported, like the failure itself.
+     */
+    private fun writeFailure(line: String, failure: Throwable) {
+        val request = parseOrNull(line)
+        val cmd = request?.path("cmd")?.asText() ?: CMD.find(line)?.groupValues?.get(1)
+        if (cmd == "start" || cmd == "stop") {
+            throw failure
+        }
+        writeError(failure)
+        val response = if (cmd == "dialect") {
+            DialectResponse(ok = false)
+        } else {
+            recoverSeq(request, line)?.let { ErroredResponse(it, ErrorContext(failure)) }
+        }
+        try {
+            response?.let { writeResponse(it) }
+        } catch (ex: IOException) {
+            writeError(ex)
+        }
+    }
+
+    private fun recoverSeq(request: JsonNode?, line: String): JsonNode? {
+        val seq = if (request != null) {
+            request.get("seq")
+        } else {
+            SEQ.find(line)?.let { parseOrNull(it.groupValues[1]) }
+        }
+        return seq?.takeIf { it.isValueNode && !it.isNull }
+    }
+
+    @Suppress("SwallowedException")
+    private fun parseOrNull(json: String): JsonNode? {
+        return try {
+            mapper.readTree(json)
+        } catch (ex: JacksonException) {
+            null
+        }
+    }
+
+    private fun handleRequest(request: JsonNode) {
+        val cmd = request.path("cmd").asText()
+        metrics.command(cmd)
+        when (cmd) {
+            "start" -> {
+                writeResponse(StartCmd().run(startReader.readValue(request)))
             }
-            is DialectRequest -> {
-                writeResponse(Dialect(config).run(request))
+            "dialect" -> {
+                writeResponse(Dialect(config).run(dialectReader.readValue(request)))
             }
-            is RunRequest -> {
-                writeResponse(RunCmd(config).run(request))
+            "run" -> {
+                writeResponse(RunCmd(config).run(RunRequest.of(request)))
             }
-            is StopRequest -> {
+            "stop" -> {
                 writeResponse(StopCmd().run())
+                writeSnapshot()
             }
             else -> {
-                writeError("unknown request!")
+                throw IllegalArgumentException("unknown request: '$cmd'")
             }
         }
     }
@@ -61,12 +136,13 @@ class Runner(
         return input.lines()
     }
 
-    private fun readRequest(input: String): Request {
-        return mapper.readValue<Request>(input)
-    }
-
-    private fun writeResponse(response: Map<String, Any>) {
+    private fun writeResponse(response: Response) {
+        if (response is ErroredResponse) {
+            metrics.errored(config.version)
+        }
+        val start = System.nanoTime()
         writeOutput(toJson(response))
+        metrics.record(config.version, Phase.ENCODE, System.nanoTime() - start)
     }
 
     private fun writeOutput(message: String) {
@@ -75,16 +151,26 @@ class Runner(
         flush()
     }
 
-    private fun writeError(exception: Exception) {
-        error.write(exception.message!!)
+    private fun writeError(failure: Throwable) {
+        error.write(failure.message ?: failure.javaClass.name)
         error.newLine()
         flush()
     }
 
-    private fun writeError(message: String) {
-        error.write(message)
-        error.newLine()
-        flush()
+    /**
+     * Writes the metrics snapshot to the file named by `BOWTIE_OPENAPIPROCESSOR_METRICS`, or to
+     * stderr when it is `-`, once: on the stop command, or on shutdown when stop never came.
+     */
+    private fun writeSnapshot() {
+        val destination = snapshot ?: return
+        if (!snapshotWritten.compareAndSet(false, true)) {
+            return
+        }
+        if (destination == "-") {
+            metrics.write(error)
+        } else {
+            Files.newBufferedWriter(Path.of(destination)).use { metrics.write(it) }
+        }
     }
 
     private fun flush() {
@@ -92,8 +178,18 @@ class Runner(
         error.flush()
     }
 
-    private fun toJson(response: Map<String, Any>): String {
-        return mapper.writeValueAsString(response)
+    private fun toJson(response: Response): String {
+        val writer = writers.getOrPut(response.javaClass) { mapper.writerFor(response.javaClass) }
+        return writer.writeValueAsString(response)
+    }
+
+    private fun readerFor(type: Class<out Any>): ObjectReader {
+        return mapper.readerFor(type)
+    }
+
+    private companion object {
+        val SEQ = Regex(""""seq"\s*:\s*(-?\d+|"(?:[^"\\]|\\.)*")""")
+        val CMD = Regex(""""cmd"\s*:\s*"(\w+)"""")
     }
 
     private fun createMapper(): JsonMapper {
@@ -16,7 +16,7 @@ fun stderr(): BufferedWriter {
     return System.err.bufferedWriter()
 }
 
-fun stacktrace(ex: Exception): String {
+fun stacktrace(ex: Throwable): String {
     val st = StringWriter()
     ex.printStackTrace(PrintWriter(st))
     return st.toString()
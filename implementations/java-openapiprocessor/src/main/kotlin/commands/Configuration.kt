@@ -1,7 +1,24 @@
 package commands
 
+import Metrics
+import io.openapiprocessor.jackson.JacksonConverter
+import io.openapiprocessor.jsonschema.reader.UriReader
+import io.openapiprocessor.jsonschema.schema.DocumentLoader
 import io.openapiprocessor.jsonschema.schema.SchemaVersion
+import java.util.EnumMap
 
 class Configuration {
     var version: SchemaVersion = SchemaVersion.getLatest()
+
+    val metrics = Metrics()
+
+    private val offline = "true".equals(System.getenv("BOWTIE_OPENAPIPROCESSOR_OFFLINE"), ignoreCase = true)
+
+    private val reader = RegistryFirstReader(if (offline) null else UriReader())
+    private val loader = DocumentLoader(reader, DocumentCache(JacksonConverter()))
+    private val dialects = EnumMap<SchemaVersion, PreparedDialect>(SchemaVersion::class.java)
+
+    fun dialect(): PreparedDialect {
+        return dialects.getOrPut(version) { PreparedDialect(version, loader) }
+    }
 }
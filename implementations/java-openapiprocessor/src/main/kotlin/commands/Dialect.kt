@@ -5,11 +5,16 @@ import java.net.URI
 
 data class DialectRequest(val dialect: URI) : Request
 
+data class DialectResponse(val ok: Boolean) : Response
+
 class Dialect(private val cfg: Configuration) : Request {
 
-    fun run(request: DialectRequest): Map<String, Any> {
-        cfg.version = SchemaVersion.getVersion(request.dialect)!!
+    fun run(request: DialectRequest): DialectResponse {
+        cfg.version = requireNotNull(SchemaVersion.getVersion(request.dialect)) {
+            "unsupported dialect: ${request.dialect}"
+        }
+        cfg.dialect()
 
-        return mapOf("ok" to true)
+        return DialectResponse(ok = true)
     }
 }
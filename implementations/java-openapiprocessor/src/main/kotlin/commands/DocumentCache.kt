@@ -0,0 +1,43 @@
+package commands
+
+import io.openapiprocessor.interfaces.Converter
+
+/**
+ * Remembers converted documents by their source text so that the metaschemas a dialect
+ * registers into every new schema store are parsed once per process instead of once per case.
+ *
+ * The remembered document itself is never handed out. Every call gets a copy of its own,
+ * which the validator is free to change (e.g. while resolving references) as it could a freshly
+ * parsed one, without changing the document for later cases. Copying the maps and lists is
+ * still far cheaper than parsing the text again. Only the [capacity] most recently used
+ * documents are kept, which is several times the number of metaschema documents of all
+ * dialects together.
+ */
+class DocumentCache(
+    private val converter: Converter,
+    private val capacity: Int = CAPACITY,
+) : Converter {
+    private val documents = object : LinkedHashMap<String, Any>(capacity, LOAD_FACTOR, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Any>): Boolean {
+            return size > capacity
+        }
+    }
+
+    @Synchronized
+    override fun convert(api: String): Any {
+        return requireNotNull(copy(documents.getOrPut(api) { converter.convert(api) }))
+    }
+
+    private fun copy(value: Any?): Any? {
+        return when (value) {
+            is Map<*, *> -> value.entries.associateTo(LinkedHashMap()) { it.key to copy(it.value) }
+            is List<*> -> value.mapTo(ArrayList(value.size)) { copy(it) }
+            else -> value
+        }
+    }
+
+    private companion object {
+        const val CAPACITY = 64
+        const val LOAD_FACTOR = 0.75f
+    }
+}
@@ -0,0 +1,152 @@
+package commands
+
+import com.fasterxml.jackson.databind.JsonNode
+
+/**
+ * Presents a decoded request tree as the plain maps, lists and values the validator walks,
+ * without copying it. Object and array nodes are wrapped on first access and the wrapper is
+ * kept, so the validator sees the same object each time it walks back into a subschema.
+ *
+ * The wrappers are copied on write: a map or list the validator changes is copied out of the
+ * tree (one level deep, its children stay views) the first time it does, so only the documents
+ * it actually changes are ever copied and the tree itself is never changed.
+ */
+fun adapt(node: JsonNode): Any? {
+    return when {
+        node.isObject -> JsonObject(node)
+        node.isArray -> JsonArray(node)
+        node.isTextual -> node.textValue()
+        node.isNumber -> node.numberValue()
+        node.isBoolean -> node.booleanValue()
+        else -> null
+    }
+}
+
+class JsonObject(private val node: JsonNode) : AbstractMutableMap<String, Any?>() {
+    private val containers = HashMap<String, Any?>()
+    private var copy: MutableMap<String, Any?>? = null
+
+    override val size: Int
+        get() = copy?.size ?: node.size()
+
+    override val entries: MutableSet<MutableMap.MutableEntry<String, Any?>> =
+        object : AbstractMutableSet<MutableMap.MutableEntry<String, Any?>>() {
+            override val size: Int
+                get() = this@JsonObject.size
+
+            override fun add(element: MutableMap.MutableEntry<String, Any?>): Boolean {
+                throw UnsupportedOperationException()
+            }
+
+            override fun iterator(): MutableIterator<MutableMap.MutableEntry<String, Any?>> {
+                return copy?.entries?.iterator() ?: Entries()
+            }
+        }
+
+    override fun containsKey(key: String): Boolean {
+        return copy?.containsKey(key) ?: node.has(key)
+    }
+
+    override fun get(key: String): Any? {
+        copy?.let { return it[key] }
+        val value = node.get(key) ?: return null
+        return value(key, value)
+    }
+
+    override fun put(key: String, value: Any?): Any? {
+        return copied().put(key, value)
+    }
+
+    override fun remove(key: String): Any? {
+        return copied().remove(key)
+    }
+
+    override fun clear() {
+        copied().clear()
+    }
+
+    private fun value(key: String, value: JsonNode): Any? {
+        return if (value.isContainerNode) containers.getOrPut(key) { adapt(value) } else adapt(value)
+    }
+
+    private fun copied(): MutableMap<String, Any?> {
+        return copy ?: node.fieldNames().asSequence()
+            .associateWithTo(LinkedHashMap(node.size())) { get(it) }
+            .also { copy = it }
+    }
+
+    private inner class Entries : MutableIterator<MutableMap.MutableEntry<String, Any?>> {
+        private val names = node.fieldNames()
+        private var last: String? = null
+
+        override fun hasNext(): Boolean {
+            return names.hasNext()
+        }
+
+        override fun next(): MutableMap.MutableEntry<String, Any?> {
+            val name = names.next()
+            last = name
+            return Entry(name)
+        }
+
+        override fun remove() {
+            val name = checkNotNull(last)
+            last = null
+            copied().remove(name)
+        }
+    }
+
+    private inner class Entry(override val key: String) : MutableMap.MutableEntry<String, Any?> {
+        override val value: Any?
+            get() = get(key)
+
+        override fun setValue(newValue: Any?): Any? {
+            return put(key, newValue)
+        }
+
+        override fun equals(other: Any?): Boolean {
+            return other is Map.Entry<*, *> && key == other.key && value == other.value
+        }
+
+        override fun hashCode(): Int {
+            return key.hashCode() xor value.hashCode()
+        }
+
+        override fun toString(): String {
+            return "$key=$value"
+        }
+    }
+}
+
+class JsonArray(private val node: JsonNode) : AbstractMutableList<Any?>() {
+    private val containers = arrayOfNulls<Any>(node.size())
+    private var copy: MutableList<Any?>? = null
+
+    override val size: Int
+        get() = copy?.size ?: node.size()
+
+    override fun get(index: Int): Any? {
+        copy?.let { return it[index] }
+        val value = node.get(index) ?: throw IndexOutOfBoundsException("index: $index, size: $size")
+        if (!value.isContainerNode) {
+            return adapt(value)
+        }
+        return containers[index] ?: adapt(value).also { containers[index] = it }
+    }
+
+    override fun set(index: Int, element: Any?): Any? {
+        return copied().set(index, element)
+    }
+
+    override fun add(index: Int, element: Any?) {
+        copied().add(index, element)
+    }
+
+    override fun removeAt(index: Int): Any? {
+        return copied().removeAt(index)
+    }
+
+    private fun copied(): MutableList<Any?> {
+        return copy ?: (0 until node.size()).mapTo(ArrayList(node.size())) { get(it) }.also { copy = it }
+    }
+}
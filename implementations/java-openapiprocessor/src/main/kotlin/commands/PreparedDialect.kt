@@ -0,0 +1,38 @@
+package commands
+
+import io.openapiprocessor.jsonschema.schema.DocumentLoader
+import io.openapiprocessor.jsonschema.schema.SchemaStore
+import io.openapiprocessor.jsonschema.schema.SchemaVersion
+import io.openapiprocessor.jsonschema.validator.Validator
+import io.openapiprocessor.jsonschema.validator.ValidatorSettings
+
+/**
+ * The case independent part of validating with one dialect: the validator and its settings,
+ * and a baseline for the schema store each case registers its own schema and registry into.
+ */
+class PreparedDialect(val version: SchemaVersion, private val loader: DocumentLoader) {
+    val validator = Validator(settings())
+
+    init {
+        // loads the metaschemas into the document cache before the first case needs them
+        newStore()
+    }
+
+    fun newStore(): SchemaStore {
+        val store = SchemaStore(loader)
+        when (version) {
+            SchemaVersion.Draft202012 -> store.registerDraft202012()
+            SchemaVersion.Draft201909 -> store.registerDraft201909()
+            SchemaVersion.Draft7 -> store.registerDraft7()
+            SchemaVersion.Draft6 -> store.registerDraft6()
+            SchemaVersion.Draft4 -> store.registerDraft4()
+        }
+        return store
+    }
+
+    private fun settings(): ValidatorSettings {
+        val settings = ValidatorSettings()
+        settings.version = version
+        return settings
+    }
+}
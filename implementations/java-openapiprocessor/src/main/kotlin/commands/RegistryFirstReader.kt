@@ -0,0 +1,36 @@
+package commands
+
+import io.openapiprocessor.interfaces.Reader
+import java.io.FileNotFoundException
+import java.io.InputStream
+import java.net.URI
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * The reader the schema store falls back to for documents it does not hold. The store serves the
+ * metaschemas of the dialect and the registry of the case first, so anything that reaches this
+ * reader is a document the case does not provide.
+ *
+ * Without a [remote] reader (offline), such a document fails at once. Otherwise it is fetched by
+ * [remote], and a document that could not be fetched, for whatever reason, is remembered and fails
+ * at once the next time it is asked for instead of waiting on the network again.
+ */
+class RegistryFirstReader(private val remote: Reader?) : Reader {
+    private val misses = ConcurrentHashMap.newKeySet<URI>()
+
+    @Suppress("TooGenericExceptionCaught")
+    override fun read(uri: URI): InputStream {
+        if (remote == null) {
+            throw FileNotFoundException("$uri is not in the registry (remote documents are not read offline)")
+        }
+        if (misses.contains(uri)) {
+            throw FileNotFoundException("$uri could not be read before")
+        }
+        try {
+            return remote.read(uri)
+        } catch (ex: Exception) {
+            misses.add(uri)
+            throw ex
+        }
+    }
+}
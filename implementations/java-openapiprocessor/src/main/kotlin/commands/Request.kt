@@ -1,17 +1,10 @@
 package commands
 
-import com.fasterxml.jackson.annotation.JsonSubTypes
-import com.fasterxml.jackson.annotation.JsonTypeInfo
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties
 
-@JsonTypeInfo(
-    use = JsonTypeInfo.Id.NAME,
-    include = JsonTypeInfo.As.EXISTING_PROPERTY,
-    property = "cmd",
-)
-@JsonSubTypes(
-    JsonSubTypes.Type(name = "start", value = StartRequest::class),
-    JsonSubTypes.Type(name = "stop", value = StopRequest::class),
-    JsonSubTypes.Type(name = "dialect", value = DialectRequest::class),
-    JsonSubTypes.Type(name = "run", value = RunRequest::class),
-)
+/**
+ * Requests are dispatched on their `cmd` property by the runner, which then binds the request
+ * with the reader of the matching request class.
+ */
+@JsonIgnoreProperties("cmd")
 interface Request
@@ -0,0 +1,3 @@
+package commands
+
+interface Response
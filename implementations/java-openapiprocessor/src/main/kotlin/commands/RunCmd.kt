@@ -1,92 +1,105 @@
 package commands
 
-import io.openapiprocessor.jackson.JacksonConverter
-import io.openapiprocessor.jsonschema.reader.UriReader
-import io.openapiprocessor.jsonschema.schema.DocumentLoader
+import Phase
+import com.fasterxml.jackson.annotation.JsonInclude
+import com.fasterxml.jackson.annotation.JsonPropertyOrder
+import com.fasterxml.jackson.databind.JsonNode
 import io.openapiprocessor.jsonschema.schema.JsonInstance
-import io.openapiprocessor.jsonschema.schema.SchemaStore
-import io.openapiprocessor.jsonschema.schema.SchemaVersion
-import io.openapiprocessor.jsonschema.validator.Validator
-import io.openapiprocessor.jsonschema.validator.ValidatorSettings
 import stacktrace
 import java.net.URI
 
 class Case(
     val description: String,
     val comment: String?,
-    val schema: Any,
-    val registry: Map<URI, Any>?,
+    val schema: JsonNode,
+    val registry: JsonNode?,
     val tests: List<Test>,
 )
 
 data class Test(
     val description: String,
     val comment: String? = null,
-    val instance: Any?,
+    val instance: JsonNode,
     val valid: Boolean?,
 )
 
-data class RunRequest(val seq: Any, val case: Case) : Request
+data class RunRequest(val seq: JsonNode, val case: Case) : Request {
+
+    companion object {
+        /**
+         * Takes a run request apart without binding its schema, registry or instances; they are
+         * copied out of the decoded tree by [adapt] as the validator needs them.
+         */
+        fun of(node: JsonNode): RunRequest {
+            val case = node.required("case")
+            return RunRequest(
+                seq = node.required("seq"),
+                case = Case(
+                    description = case.required("description").asText(),
+                    comment = case.get("comment")?.asText(),
+                    schema = case.required("schema"),
+                    registry = case.get("registry"),
+                    tests = case.required("tests").map {
+                        Test(
+                            description = it.required("description").asText(),
+                            comment = it.get("comment")?.asText(),
+                            instance = it.required("instance"),
+                            valid = it.get("valid")?.asBoolean(),
+                        )
+                    },
+                ),
+            )
+        }
+    }
+}
+
+data class RunResponse(val seq: Any, val results: List<TestResult>) : Response
+
+data class TestResult(val valid: Boolean)
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder("seq", "errored", "context")
+data class ErroredResponse(val seq: JsonNode?, val context: ErrorContext) : Response {
+    val errored = true
+}
+
+data class ErrorContext(val message: String, val traceback: String) {
+    constructor(failure: Throwable) : this(failure.message ?: failure.javaClass.name, stacktrace(failure))
+}
 
 class RunCmd(private val cfg: Configuration) : Request {
 
     @Suppress("TooGenericExceptionCaught")
-    fun run(request: RunRequest): Map<String, Any> {
+    fun run(request: RunRequest): Response {
         return try {
             validate(request)
         } catch (ex: Exception) {
-            mapOf(
-                "seq" to request.seq,
-                "errored" to true,
-                "context" to mapOf(
-                    "message" to ex.message,
-                    "traceback" to stacktrace(ex),
-                ),
-            )
+            ErroredResponse(request.seq, ErrorContext(ex))
         }
     }
 
-    private fun validate(request: RunRequest): Map<String, Any> {
-        val reader = UriReader()
-        val converter = JacksonConverter()
-        val loader = DocumentLoader(reader, converter)
-
-        val store = SchemaStore(loader)
-        when (cfg.version) {
-            SchemaVersion.Draft202012 -> store.registerDraft202012()
-            SchemaVersion.Draft201909 -> store.registerDraft201909()
-            SchemaVersion.Draft7 -> store.registerDraft7()
-            SchemaVersion.Draft6 -> store.registerDraft6()
-            SchemaVersion.Draft4 -> store.registerDraft4()
-        }
+    private fun validate(request: RunRequest): RunResponse {
+        val started = System.nanoTime()
+        val dialect = cfg.dialect()
+        val store = dialect.newStore()
 
-        request.case.registry?.forEach {
-            store.register(it.key, it.value)
+        request.case.registry?.properties()?.forEach {
+            store.register(URI(it.key), adapt(it.value))
         }
 
-        val schemaUri = store.register(request.case.schema)
-        val schema = store.getSchema(schemaUri, cfg.version)
+        val schemaUri = store.register(adapt(request.case.schema))
+        val schema = store.getSchema(schemaUri, dialect.version)
+        val validator = dialect.validator
+        cfg.metrics.record(dialect.version, Phase.COMPILE, System.nanoTime() - started)
 
-        val settings = ValidatorSettings()
-        settings.version = cfg.version
-
-        val validator = Validator(settings)
-
-        val results = mutableListOf<Any>()
-        request.case.tests.forEach {
-            val instance = JsonInstance(it.instance)
+        val results = request.case.tests.map {
+            val start = System.nanoTime()
+            val instance = JsonInstance(adapt(it.instance))
             val step = validator.validate(schema, instance)
-
-            results.add(
-                mutableMapOf<String, Any>(
-                    "valid" to step.isValid,
-                ),
-            )
+            cfg.metrics.record(dialect.version, Phase.VALIDATE, System.nanoTime() - start)
+            TestResult(step.isValid)
         }
 
-        return mapOf(
-            "seq" to request.seq,
-            "results" to results,
-        )
+        return RunResponse(request.seq, results)
     }
 }
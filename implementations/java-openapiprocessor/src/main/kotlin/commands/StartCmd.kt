@@ -1,28 +1,43 @@
 package commands
 
+import com.fasterxml.jackson.annotation.JsonProperty
 import io.openapiprocessor.jsonschema.schema.SchemaVersion
 import java.net.URI
 import java.util.Properties
 
 data class StartRequest(val version: Int) : Request
 
+data class StartResponse(val version: Int, val implementation: Implementation) : Response
+
+data class Implementation(
+    val language: String,
+    @get:JsonProperty("language_version")
+    val languageVersion: String,
+    val name: String,
+    val version: String,
+    val dialects: List<URI>,
+    val homepage: URI,
+    val issues: URI,
+    val source: URI,
+)
+
 class StartCmd {
 
-    fun run(request: StartRequest): Map<String, Any> {
+    fun run(request: StartRequest): StartResponse {
         assert(request.version == 1)
 
         val properties = readProperties()
-        return mapOf(
-            "version" to 1,
-            "implementation" to mapOf(
-                "language" to "java",
-                "language_version" to getRuntimeVersion(),
-                "name" to "io.openapiprocessor.json-schema-validator",
-                "version" to properties.getVersion(),
-                "dialects" to SchemaVersion.entries.map { it.schemaUri },
-                "homepage" to properties.getHomepage(),
-                "issues" to properties.getIssues(),
-                "source" to properties.getSource(),
+        return StartResponse(
+            version = 1,
+            implementation = Implementation(
+                language = "java",
+                languageVersion = getRuntimeVersion(),
+                name = "io.openapiprocessor.json-schema-validator",
+                version = properties.getVersion(),
+                dialects = SchemaVersion.entries.map { it.schemaUri },
+                homepage = properties.getHomepage(),
+                issues = properties.getIssues(),
+                source = properties.getSource(),
             ),
         )
     }
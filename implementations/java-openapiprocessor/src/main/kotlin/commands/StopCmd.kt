@@ -1,10 +1,15 @@
 package commands
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize
+
 class StopRequest : Request
 
+@JsonSerialize
+class StopResponse : Response
+
 class StopCmd {
 
-    fun run(): Map<String, Any> {
-        return emptyMap()
+    fun run(): StopResponse {
+        return StopResponse()
     }
 }
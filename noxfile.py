@@ -305,7 +305,11 @@ def bench_info(session, bowtie):
             "3",
             "-L",
             "implementation",
-            ",".join(p.name for p in IMPLEMENTATIONS.iterdir() if p.is_dir()),
+            ",".join(
+                p.name
+                for p in IMPLEMENTATIONS.iterdir()
+                if p.is_dir() and not p.name.startswith(".")
+            ),
         ]
     return args, f"{bowtie} info -i {{implementation}}"
 
@@ -323,7 +327,11 @@ def bench_smoke(session, bowtie):
             "3",
             "-L",
             "implementation",
-            ",".join(p.name for p in IMPLEMENTATIONS.iterdir() if p.is_dir()),
+            ",".join(
+                p.name
+                for p in IMPLEMENTATIONS.iterdir()
+                if p.is_dir() and not p.name.startswith(".")
+            ),
         ]
     return args, f"{bowtie} smoke -i {{implementation}}"
 
@@ -345,7 +353,11 @@ def bench_suite(session, bowtie):
             "--ignore-failure",
             "-L",
             "implementation",
-            ",".join(p.name for p in IMPLEMENTATIONS.iterdir() if p.is_dir()),
+            ",".join(
+                p.name
+                for p in IMPLEMENTATIONS.iterdir()
+                if p.is_dir() and not p.name.startswith(".")
+            ),
         ]
         command = f"{bowtie} suite -i {{implementation}} {posargs}"
     else:
@@ -378,15 +390,22 @@ def develop_harness(session):
         tag = f":{version}" if has_version else ""
 
         name = Path(each).name
+        dockerfile = IMPLEMENTATIONS / name / "Dockerfile"
+        build_contexts = (
+            ["--build-context", f"ihop={IMPLEMENTATIONS / '.java-ihop'}"]
+            if "--from=ihop" in dockerfile.read_text()
+            else []
+        )
         with session.chdir(IMPLEMENTATIONS / name):
             session.run(
                 oci_build,
                 "build",
                 "-f",
-                IMPLEMENTATIONS / name / "Dockerfile",
+                dockerfile,
                 "-t",
                 f"ghcr.io/bowtie-json-schema/{name}{tag}",
                 *build_args if has_version else [],
+                *build_contexts,
                 external=True,
             )
         session.run("bowtie", "smoke", "--quiet", "-i", name, external=True)